@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BenchmarkComparison {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BenchmarkComparison <before.json> <after.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> before = read(new File(args[0]));
+        Map<String, JsonNode> after = read(new File(args[1]));
+        int width = after.keySet().stream().mapToInt(String::length).max().orElse(0) + 2;
+        String row = "%-" + width + "s %14s %14s %9s  %s%n";
+        System.out.printf(row, "Benchmark", "Before", "After", "Change", "Units");
+        for (Map.Entry<String, JsonNode> entry : after.entrySet()) {
+            JsonNode previous = before.get(entry.getKey());
+            double score = entry.getValue().get("score").asDouble();
+            String unit = entry.getValue().get("scoreUnit").asText();
+            if (previous == null) {
+                System.out.printf(row, entry.getKey(), "-", format(score), "new", unit);
+                continue;
+            }
+            double previousScore = previous.get("score").asDouble();
+            double change = (score - previousScore) / previousScore * 100;
+            System.out.printf(row, entry.getKey(), format(previousScore), format(score),
+                    String.format("%+.1f%%", change), unit);
+        }
+    }
+
+    private static String format(double score) {
+        return String.format("%.2f", score);
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String name = run.get("benchmark").asText().replaceFirst("^.*\\.benchmark\\.", "");
+            Map<String, String> params = new TreeMap<>();
+            if (run.has("params")) {
+                run.get("params").fields().forEachRemaining(param -> params.put(param.getKey(),
+                        param.getValue().asText()));
+            }
+            results.put(params.isEmpty() ? name : name + params, run.get("primaryMetric"));
+        }
+        return results;
+    }
+}
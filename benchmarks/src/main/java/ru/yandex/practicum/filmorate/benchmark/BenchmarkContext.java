@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.model.enums.CatalogEntity;
+import ru.yandex.practicum.filmorate.service.CatalogImporter;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.EventService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.ReviewStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+    private static final long SEED = 42;
+
+    @Param("2000")
+    public int users;
+    @Param("5000")
+    public int films;
+    @Param("200")
+    public int directors;
+    @Param("20")
+    public int likesPerUser;
+    @Param("10")
+    public int friendsPerUser;
+    @Param("2000")
+    public int reviews;
+
+    ConfigurableApplicationContext context;
+    FilmStorage filmStorage;
+    UserStorage userStorage;
+    ReviewStorage reviewStorage;
+    FilmService filmService;
+    UserService userService;
+    EventService eventService;
+    long firstReviewId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.zalando.logbook=OFF",
+                        "--filmorate.events.write-mode=ASYNC");
+        filmStorage = context.getBean(FilmStorage.class);
+        userStorage = context.getBean(UserStorage.class);
+        reviewStorage = context.getBean(ReviewStorage.class);
+        filmService = context.getBean(FilmService.class);
+        userService = context.getBean(UserService.class);
+        eventService = context.getBean(EventService.class);
+        load();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    long randomUserId() {
+        return 1 + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    long randomFilmId() {
+        return 1 + ThreadLocalRandom.current().nextInt(films);
+    }
+
+    long randomReviewId() {
+        return firstReviewId + ThreadLocalRandom.current().nextInt(reviews);
+    }
+
+    String randomWord() {
+        return SyntheticCatalog.WORDS.get(ThreadLocalRandom.current().nextInt(SyntheticCatalog.WORDS.size()));
+    }
+
+    private void load() throws IOException {
+        SyntheticCatalog catalog = new SyntheticCatalog(SEED, users, films, directors, likesPerUser, friendsPerUser);
+        DirectorService directorService = context.getBean(DirectorService.class);
+        long firstDirectorId = 0;
+        for (int i = 0; i < directors; i++) {
+            Director director = directorService.create(Director.builder().name(catalog.directorName(i)).build());
+            firstDirectorId = i == 0 ? director.getId() : firstDirectorId;
+        }
+        CatalogImporter importer = context.getBean(CatalogImporter.class);
+        importer.importNdjson(CatalogEntity.USERS, null, stream(catalog.users()));
+        importer.importNdjson(CatalogEntity.FILMS, null, stream(catalog.films(firstDirectorId)));
+        importer.importNdjson(CatalogEntity.LIKES, null, stream(catalog.likes()));
+        importer.importNdjson(CatalogEntity.FRIENDSHIPS, null, stream(catalog.friendships()));
+
+        Random random = new Random(SEED);
+        for (int i = 0; i < reviews; i++) {
+            Review review = reviewStorage.createReview(Review.builder()
+                    .content("Synthetic review " + i)
+                    .isPositive(random.nextBoolean())
+                    .userId(1L + random.nextInt(users))
+                    .filmId(1L + random.nextInt(films))
+                    .build());
+            firstReviewId = i == 0 ? review.getReviewId() : firstReviewId;
+        }
+    }
+
+    private ByteArrayInputStream stream(String ndjson) {
+        return new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FilmImportBenchmark {
+    private static final int BATCH = 1000;
+
+    private List<Film> films;
+
+    @Setup(Level.Invocation)
+    public void prepareBatch() {
+        films = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            films.add(Film.builder()
+                    .name("Imported film " + i)
+                    .description("Benchmark import")
+                    .releaseDate(LocalDate.of(2000, 1, 1).plusDays(i))
+                    .duration(90)
+                    .mpa(new Mpa(1 + i % 5, null))
+                    .genres(new LinkedHashSet<>(List.of(new Genre(1 + i % 6, null))))
+                    .directors(new LinkedHashSet<>())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Film> createAll(BenchmarkContext context) {
+        return context.filmService.createAll(films);
+    }
+}
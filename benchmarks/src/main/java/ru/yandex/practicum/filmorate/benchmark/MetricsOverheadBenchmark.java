@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.config.HttpRequestMetrics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetricsOverheadBenchmark {
+    private static final BiConsumer<MockHttpServletRequest, MockHttpServletResponse> CONTROLLER =
+            (request, response) -> {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/films/{id}");
+                ServerHttpObservationFilter.findObservationContext(request)
+                        .ifPresent(context -> context.setPathPattern("/films/{id}"));
+                response.setStatus(200);
+            };
+
+    private PrometheusMeterRegistry meterRegistry;
+    private HttpRequestMetrics httpRequestMetrics;
+    private ServerHttpObservationFilter observationFilter;
+    private LongAdder likes;
+
+    @Setup
+    public void setUp() {
+        meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals(HttpRequestMetrics.METRIC_NAME)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        });
+        httpRequestMetrics = new HttpRequestMetrics(meterRegistry);
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(
+                new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+        observationFilter = new ServerHttpObservationFilter(observationRegistry);
+        likes = new LongAdder();
+        for (int i = 0; i < 100; i++) {
+            requestWithMetrics();
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse requestWithoutMetrics() {
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CONTROLLER.accept(request, response);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse requestWithMetrics() {
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        httpRequestMetrics.preHandle(request, response, CONTROLLER);
+        CONTROLLER.accept(request, response);
+        httpRequestMetrics.afterCompletion(request, response, CONTROLLER, null);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse requestWithObservation() throws ServletException, IOException {
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        observationFilter.doFilter(request, response, (servletRequest, servletResponse) ->
+                CONTROLLER.accept((MockHttpServletRequest) servletRequest, (MockHttpServletResponse) servletResponse));
+        return response;
+    }
+
+    @Benchmark
+    public void domainCounter() {
+        likes.increment();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String scrape() {
+        return meterRegistry.scrape();
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/films/42");
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PopularFilmsBenchmark {
+    @Benchmark
+    public Collection<Film> getTopFilms(MillionLikes state) {
+        return state.catalog.filmStorage.getTopFilms(10L, null, null);
+    }
+
+    @Benchmark
+    public Collection<Film> getTopFilmsByGenre(MillionLikes state) {
+        return state.catalog.filmStorage.getTopFilms(10L, 1 + ThreadLocalRandom.current().nextInt(6), null);
+    }
+
+    @Benchmark
+    public Collection<Film> getTopFilmsByYear(MillionLikes state) {
+        return state.catalog.filmStorage.getTopFilms(10L, null, 1960 + ThreadLocalRandom.current().nextInt(64));
+    }
+
+    @Benchmark
+    public Collection<Film> getTopFilmsFromLeaderboard(MillionLikes state) {
+        return state.catalog.filmService.getTopFilms(10L, null, null);
+    }
+
+    @State(Scope.Benchmark)
+    public static class MillionLikes {
+        @Param("50000")
+        public int users;
+        @Param("20000")
+        public int films;
+        @Param("20")
+        public int likesPerUser;
+
+        BenchmarkContext catalog;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            catalog = new BenchmarkContext();
+            catalog.users = users;
+            catalog.films = films;
+            catalog.directors = 200;
+            catalog.likesPerUser = likesPerUser;
+            catalog.friendsPerUser = 0;
+            catalog.reviews = 0;
+            catalog.setUp();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            catalog.tearDown();
+        }
+    }
+}
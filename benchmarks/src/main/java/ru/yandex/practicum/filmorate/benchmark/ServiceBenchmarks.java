@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmarks {
+    private static final Set<String> SEARCH_BY = Set.of("title", "director");
+
+    @Benchmark
+    public Collection<Film> getTopFilms(BenchmarkContext context) {
+        return context.filmService.getTopFilms(10L, null, null);
+    }
+
+    @Benchmark
+    public Collection<Film> getTopFilmsByGenre(BenchmarkContext context) {
+        return context.filmService.getTopFilms(10L, 1 + ThreadLocalRandom.current().nextInt(6), null);
+    }
+
+    @Benchmark
+    public Collection<Film> getRecommendations(BenchmarkContext context) {
+        return context.filmService.getRecommendations(context.randomUserId());
+    }
+
+    @Benchmark
+    public Collection<Film> searchFilm(BenchmarkContext context) {
+        return context.filmService.searchFilm(context.randomWord(), SEARCH_BY);
+    }
+
+    @Benchmark
+    public Collection<Film> getCommonFilms(BenchmarkContext context) {
+        return context.filmService.getCommonFilms(context.randomUserId(), context.randomUserId());
+    }
+
+    @Benchmark
+    public Collection<User> getCommonFriends(BenchmarkContext context) {
+        return context.userService.getCommonFriends(context.randomUserId(), context.randomUserId());
+    }
+
+    @Benchmark
+    public Collection<Event> getFriendsFeed(BenchmarkContext context) {
+        return context.eventService.getFriendsFeed(context.randomUserId(), 50);
+    }
+}
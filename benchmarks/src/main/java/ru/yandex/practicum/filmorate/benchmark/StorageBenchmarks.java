@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmarks {
+    @Benchmark
+    public Collection<Film> getTopFilms(BenchmarkContext context) {
+        return context.filmStorage.getTopFilms(10L, null, null);
+    }
+
+    @Benchmark
+    public Collection<Film> getTopFilmsByGenre(BenchmarkContext context) {
+        return context.filmStorage.getTopFilms(10L, 1 + ThreadLocalRandom.current().nextInt(6), null);
+    }
+
+    @Benchmark
+    public Collection<Film> getRecommendations(BenchmarkContext context) {
+        return context.filmStorage.getRecommendations(context.randomUserId());
+    }
+
+    @Benchmark
+    public Collection<Film> searchFilmByTitleAndDirector(BenchmarkContext context) {
+        return context.filmStorage.getFilmsByTitleAndDirector(context.randomWord());
+    }
+
+    @Benchmark
+    public Collection<Film> getCommonFilms(BenchmarkContext context) {
+        return context.filmStorage.getCommonFilms(context.randomUserId(), context.randomUserId());
+    }
+
+    @Benchmark
+    public Film findFilm(BenchmarkContext context) {
+        return context.filmStorage.findFilm(context.randomFilmId()).orElseThrow();
+    }
+
+    @Benchmark
+    public void likeDislike(BenchmarkContext context) {
+        context.reviewStorage.likeDislike(context.randomReviewId(), context.randomUserId(),
+                ThreadLocalRandom.current().nextBoolean());
+    }
+
+    @Benchmark
+    public Collection<User> findAllUsers(BenchmarkContext context) {
+        return context.userStorage.findAll();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class SyntheticCatalog {
+    static final List<String> WORDS = List.of("star", "night", "river", "ghost", "empire", "summer", "dragon",
+            "silent", "city", "winter", "lost", "shadow", "golden", "storm", "last", "island");
+
+    private final Random random;
+    private final int users;
+    private final int films;
+    private final int directors;
+    private final int likesPerUser;
+    private final int friendsPerUser;
+
+    public SyntheticCatalog(long seed, int users, int films, int directors, int likesPerUser, int friendsPerUser) {
+        this.random = new Random(seed);
+        this.users = users;
+        this.films = films;
+        this.directors = directors;
+        this.likesPerUser = likesPerUser;
+        this.friendsPerUser = friendsPerUser;
+    }
+
+    public String users() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int id = 1; id <= users; id++) {
+            ndjson.append("{\"id\":").append(id)
+                    .append(",\"email\":\"user").append(id).append("@example.com\"")
+                    .append(",\"login\":\"user").append(id).append('"')
+                    .append(",\"birthday\":\"").append(1950 + random.nextInt(55)).append("-01-01\"}\n");
+        }
+        return ndjson.toString();
+    }
+
+    public String films(long firstDirectorId) {
+        StringBuilder ndjson = new StringBuilder();
+        for (int id = 1; id <= films; id++) {
+            ndjson.append("{\"id\":").append(id)
+                    .append(",\"name\":\"").append(title(id)).append('"')
+                    .append(",\"description\":\"Synthetic film ").append(id).append('"')
+                    .append(",\"releaseDate\":\"").append(1960 + random.nextInt(64)).append("-06-15\"")
+                    .append(",\"duration\":").append(80 + random.nextInt(100))
+                    .append(",\"mpa\":{\"id\":").append(1 + random.nextInt(5)).append('}')
+                    .append(",\"genres\":[{\"id\":").append(1 + random.nextInt(6)).append("}]");
+            if (directors > 0) {
+                ndjson.append(",\"directors\":[{\"id\":").append(firstDirectorId + random.nextInt(directors))
+                        .append("}]");
+            }
+            ndjson.append("}\n");
+        }
+        return ndjson.toString();
+    }
+
+    public String likes() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int userId = 1; userId <= users; userId++) {
+            Set<Integer> liked = new HashSet<>();
+            while (liked.size() < Math.min(likesPerUser, films)) {
+                liked.add(popularFilmId());
+            }
+            for (int filmId : liked) {
+                ndjson.append("{\"filmId\":").append(filmId).append(",\"userId\":").append(userId).append("}\n");
+            }
+        }
+        return ndjson.toString();
+    }
+
+    public String friendships() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int userId = 1; userId <= users; userId++) {
+            Set<Integer> friends = new HashSet<>();
+            while (friends.size() < Math.min(friendsPerUser, users - 1)) {
+                int friendId = 1 + random.nextInt(users);
+                if (friendId != userId) {
+                    friends.add(friendId);
+                }
+            }
+            for (int friendId : friends) {
+                ndjson.append("{\"userId\":").append(userId).append(",\"friendId\":").append(friendId).append("}\n");
+            }
+        }
+        return ndjson.toString();
+    }
+
+    public String directorName(int index) {
+        return WORDS.get(random.nextInt(WORDS.size())) + " director " + index;
+    }
+
+    String title(int id) {
+        return WORDS.get(random.nextInt(WORDS.size())) + " " + WORDS.get(random.nextInt(WORDS.size())) + " " + id;
+    }
+
+    private int popularFilmId() {
+        double skewed = random.nextDouble() * random.nextDouble();
+        return 1 + (int) (skewed * films);
+    }
+}
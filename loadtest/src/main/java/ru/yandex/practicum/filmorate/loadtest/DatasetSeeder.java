@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class DatasetSeeder {
+    static final List<String> WORDS = List.of("star", "night", "river", "ghost", "empire", "summer", "dragon",
+            "silent", "city", "winter", "lost", "shadow", "golden", "storm", "last", "island");
+
+    private final HttpClient http;
+    private final URI baseUri;
+    private final LoadProfile.Dataset dataset;
+    private final Random random;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public DatasetSeeder(HttpClient http, URI baseUri, LoadProfile.Dataset dataset, long seed) {
+        this.http = http;
+        this.baseUri = baseUri;
+        this.dataset = dataset;
+        this.random = new Random(seed);
+    }
+
+    public void seed() throws IOException, InterruptedException {
+        long firstDirectorId = 0;
+        for (int i = 0; i < dataset.directors(); i++) {
+            JsonNode director = post("/directors", "application/json",
+                    "{\"name\":\"" + word() + " director " + i + "\"}");
+            firstDirectorId = i == 0 ? director.get("id").asLong() : firstDirectorId;
+        }
+        importCatalog("users", users());
+        importCatalog("films", films(firstDirectorId));
+        importCatalog("likes", likes());
+        importCatalog("friendships", friendships());
+        for (int i = 0; i < dataset.reviews(); i++) {
+            post("/reviews", "application/json", "{\"content\":\"Synthetic review " + i + "\",\"isPositive\":"
+                    + random.nextBoolean() + ",\"userId\":" + Endpoint.userId(dataset, random)
+                    + ",\"filmId\":" + Endpoint.popularFilmId(dataset, random) + "}");
+        }
+    }
+
+    private void importCatalog(String entity, String ndjson) throws IOException, InterruptedException {
+        JsonNode report = post("/internal/catalog/import/" + entity, "application/x-ndjson", ndjson);
+        System.out.printf("Seeded %s %s, %s rejected%n", report.get("importedRows").asLong(), entity,
+                report.get("rejectedRows").asLong());
+    }
+
+    private JsonNode post(String path, String contentType, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST " + path + " failed with " + response.statusCode() + ": "
+                    + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private String users() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int id = 1; id <= dataset.users(); id++) {
+            ndjson.append("{\"id\":").append(id)
+                    .append(",\"email\":\"user").append(id).append("@example.com\"")
+                    .append(",\"login\":\"user").append(id).append('"')
+                    .append(",\"birthday\":\"").append(1950 + random.nextInt(55)).append("-01-01\"}\n");
+        }
+        return ndjson.toString();
+    }
+
+    private String films(long firstDirectorId) {
+        StringBuilder ndjson = new StringBuilder();
+        for (int id = 1; id <= dataset.films(); id++) {
+            ndjson.append("{\"id\":").append(id)
+                    .append(",\"name\":\"").append(word()).append(' ').append(word()).append(' ').append(id)
+                    .append("\",\"description\":\"Synthetic film ").append(id).append('"')
+                    .append(",\"releaseDate\":\"").append(1960 + random.nextInt(64)).append("-06-15\"")
+                    .append(",\"duration\":").append(80 + random.nextInt(100))
+                    .append(",\"mpa\":{\"id\":").append(1 + random.nextInt(5)).append('}')
+                    .append(",\"genres\":[{\"id\":").append(1 + random.nextInt(6)).append("}]");
+            if (dataset.directors() > 0) {
+                ndjson.append(",\"directors\":[{\"id\":").append(firstDirectorId + random.nextInt(dataset.directors()))
+                        .append("}]");
+            }
+            ndjson.append("}\n");
+        }
+        return ndjson.toString();
+    }
+
+    private String likes() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int userId = 1; userId <= dataset.users(); userId++) {
+            Set<Long> liked = new HashSet<>();
+            while (liked.size() < Math.min(dataset.likesPerUser(), dataset.films())) {
+                liked.add(Endpoint.popularFilmId(dataset, random));
+            }
+            for (long filmId : liked) {
+                ndjson.append("{\"filmId\":").append(filmId).append(",\"userId\":").append(userId).append("}\n");
+            }
+        }
+        return ndjson.toString();
+    }
+
+    private String friendships() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int userId = 1; userId <= dataset.users(); userId++) {
+            Set<Long> friends = new HashSet<>();
+            while (friends.size() < Math.min(dataset.friendsPerUser(), dataset.users() - 1)) {
+                long friendId = Endpoint.userId(dataset, random);
+                if (friendId != userId) {
+                    friends.add(friendId);
+                }
+            }
+            for (long friendId : friends) {
+                ndjson.append("{\"userId\":").append(userId).append(",\"friendId\":").append(friendId).append("}\n");
+            }
+        }
+        return ndjson.toString();
+    }
+
+    private String word() {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+}
@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Random;
+
+public enum Endpoint {
+    POPULAR("GET /films/popular") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return get(baseUri, "/films/popular?count=10");
+        }
+    },
+    FILM("GET /films/{id}") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return get(baseUri, "/films/" + popularFilmId(dataset, random));
+        }
+    },
+    LIKE("PUT /films/{id}/like/{userId}") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return send(baseUri, "PUT", "/films/" + popularFilmId(dataset, random) + "/like/"
+                    + userId(dataset, random), null);
+        }
+    },
+    UNLIKE("DELETE /films/{id}/like/{userId}") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return send(baseUri, "DELETE", "/films/" + popularFilmId(dataset, random) + "/like/"
+                    + userId(dataset, random), null);
+        }
+    },
+    REVIEWS("GET /reviews?filmId") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return get(baseUri, "/reviews?count=10&filmId=" + popularFilmId(dataset, random));
+        }
+    },
+    ADD_REVIEW("POST /reviews") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return send(baseUri, "POST", "/reviews", "{\"content\":\"Load test review\",\"isPositive\":"
+                    + random.nextBoolean() + ",\"userId\":" + userId(dataset, random)
+                    + ",\"filmId\":" + popularFilmId(dataset, random) + "}");
+        }
+    },
+    FRIENDS("GET /users/{id}/friends") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return get(baseUri, "/users/" + userId(dataset, random) + "/friends");
+        }
+    },
+    COMMON_FRIENDS("GET /users/{id}/friends/common/{otherId}") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return get(baseUri, "/users/" + userId(dataset, random) + "/friends/common/"
+                    + userId(dataset, random));
+        }
+    },
+    RECOMMENDATIONS("GET /users/{id}/recommendations") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return get(baseUri, "/users/" + userId(dataset, random) + "/recommendations");
+        }
+    },
+    FRIENDS_FEED("GET /users/{id}/feed/friends") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return get(baseUri, "/users/" + userId(dataset, random) + "/feed/friends?limit=20");
+        }
+    },
+    SEARCH("GET /films/search") {
+        @Override
+        HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random) {
+            return get(baseUri, "/films/search?by=title,director&query="
+                    + DatasetSeeder.WORDS.get(random.nextInt(DatasetSeeder.WORDS.size())));
+        }
+    };
+
+    private final String route;
+
+    Endpoint(String route) {
+        this.route = route;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    abstract HttpRequest request(URI baseUri, LoadProfile.Dataset dataset, Random random);
+
+    static long userId(LoadProfile.Dataset dataset, Random random) {
+        return 1 + random.nextInt(dataset.users());
+    }
+
+    static long popularFilmId(LoadProfile.Dataset dataset, Random random) {
+        double skewed = random.nextDouble() * random.nextDouble();
+        return 1 + (long) (skewed * dataset.films());
+    }
+
+    private static HttpRequest get(URI baseUri, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private static HttpRequest send(URI baseUri, String method, String path, String json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path));
+        if (json == null) {
+            return request.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
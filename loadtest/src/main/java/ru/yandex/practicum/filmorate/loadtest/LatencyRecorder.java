@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class LatencyRecorder {
+    private final Map<Endpoint, Samples> samples = new EnumMap<>(Endpoint.class);
+
+    public void record(Endpoint endpoint, long latencyNanos, boolean success) {
+        Samples endpointSamples = samples.computeIfAbsent(endpoint, v -> new Samples());
+        if (success) {
+            endpointSamples.add(latencyNanos);
+        } else {
+            endpointSamples.errors++;
+        }
+    }
+
+    public static LatencyRecorder merge(Collection<LatencyRecorder> recorders) {
+        LatencyRecorder merged = new LatencyRecorder();
+        for (LatencyRecorder recorder : recorders) {
+            recorder.samples.forEach((endpoint, endpointSamples) ->
+                    merged.samples.computeIfAbsent(endpoint, v -> new Samples()).addAll(endpointSamples));
+        }
+        return merged;
+    }
+
+    public Map<Endpoint, Samples> getSamples() {
+        return samples;
+    }
+
+    public static class Samples {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+        private boolean sorted;
+
+        void add(long latencyNanos) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            sorted = false;
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(size + other.size, latencies.length * 2));
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            errors += other.errors;
+            sorted = false;
+        }
+
+        public int getCount() {
+            return size;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long percentile(double percentile) {
+            if (size == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(latencies, 0, size);
+                sorted = true;
+            }
+            int index = (int) Math.ceil(percentile / 100 * size) - 1;
+            return latencies[Math.clamp(index, 0, size - 1)];
+        }
+
+        public long max() {
+            return percentile(100);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+public record LoadProfile(String name, int clients, Duration warmup, Duration duration, long seed,
+                          Dataset dataset, Map<Endpoint, Integer> mix) {
+    private static final ObjectMapper MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+    public LoadProfile {
+        if (clients < 1) {
+            throw new IllegalArgumentException("Profile " + name + " must have at least one client");
+        }
+        if (mix == null || mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Profile " + name + " must have a request mix with positive weights");
+        }
+        mix = new EnumMap<>(mix);
+    }
+
+    public static LoadProfile load(String profile) throws IOException {
+        File file = new File(profile);
+        if (file.isFile()) {
+            return MAPPER.readValue(file, LoadProfile.class);
+        }
+        try (InputStream resource = LoadProfile.class.getResourceAsStream("/profiles/" + profile + ".json")) {
+            if (resource == null) {
+                throw new IllegalArgumentException("Profile " + profile + " is neither a file nor a built-in profile");
+            }
+            return MAPPER.readValue(resource, LoadProfile.class);
+        }
+    }
+
+    public LoadProfile withClients(int clients) {
+        return new LoadProfile(name, clients, warmup, duration, seed, dataset, mix);
+    }
+
+    public LoadProfile withWarmup(Duration warmup) {
+        return new LoadProfile(name, clients, warmup, duration, seed, dataset, mix);
+    }
+
+    public LoadProfile withDuration(Duration duration) {
+        return new LoadProfile(name, clients, warmup, duration, seed, dataset, mix);
+    }
+
+    public LoadProfile withSeed(long seed) {
+        return new LoadProfile(name, clients, warmup, duration, seed, dataset, mix);
+    }
+
+    Mix requestMix() {
+        return new Mix(mix);
+    }
+
+    public record Dataset(int users, int films, int directors, int likesPerUser, int friendsPerUser, int reviews) {
+    }
+
+    static class Mix {
+        private final Endpoint[] endpoints;
+        private final int[] cumulativeWeights;
+
+        Mix(Map<Endpoint, Integer> weights) {
+            endpoints = weights.keySet().toArray(Endpoint[]::new);
+            cumulativeWeights = new int[endpoints.length];
+            int total = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                total += weights.get(endpoints[i]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        Endpoint next(Random random) {
+            int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (point < cumulativeWeights[i]) {
+                    return endpoints[i];
+                }
+            }
+            throw new IllegalStateException("Weight " + point + " is out of range");
+        }
+    }
+}
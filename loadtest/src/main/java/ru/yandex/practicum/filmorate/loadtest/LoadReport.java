@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public record LoadReport(String profile, int clients, long seed, double elapsedSeconds, List<EndpointStats> endpoints,
+                         EndpointStats total) {
+    public static LoadReport of(LoadProfile profile, LatencyRecorder recorder, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        List<EndpointStats> endpoints = new ArrayList<>();
+        LatencyRecorder.Samples all = new LatencyRecorder.Samples();
+        for (Map.Entry<Endpoint, LatencyRecorder.Samples> entry : recorder.getSamples().entrySet()) {
+            endpoints.add(EndpointStats.of(entry.getKey().getRoute(), entry.getValue(), seconds));
+            all.addAll(entry.getValue());
+        }
+        return new LoadReport(profile.name(), profile.clients(), profile.seed(), seconds, endpoints,
+                EndpointStats.of("TOTAL", all, seconds));
+    }
+
+    public void print(PrintStream out) {
+        int width = endpoints.stream().mapToInt(stats -> stats.endpoint().length()).max().orElse(5) + 2;
+        String row = "%-" + width + "s %9s %7s %9s %9s %9s %9s %9s%n";
+        out.printf("Profile %s, %d clients, seed %d, measured for %.1f s%n", profile, clients, seed, elapsedSeconds);
+        out.printf(row, "Endpoint", "Requests", "Errors", "RPS", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        endpoints.forEach(stats -> stats.print(out, row));
+        total.print(out, row);
+    }
+
+    public void write(File file) throws IOException {
+        ObjectMapper mapper = JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build();
+        mapper.writeValue(file, this);
+    }
+
+    public record EndpointStats(String endpoint, long requests, long errors, double rps, double p50Millis,
+                                double p99Millis, double p999Millis, double maxMillis) {
+        static EndpointStats of(String endpoint, LatencyRecorder.Samples samples, double seconds) {
+            return new EndpointStats(endpoint, samples.getCount(), samples.getErrors(),
+                    (samples.getCount() + samples.getErrors()) / seconds, millis(samples.percentile(50)),
+                    millis(samples.percentile(99)), millis(samples.percentile(99.9)), millis(samples.max()));
+        }
+
+        void print(PrintStream out, String row) {
+            out.printf(row, endpoint, requests, errors, String.format("%.1f", rps), String.format("%.2f", p50Millis),
+                    String.format("%.2f", p99Millis), String.format("%.2f", p999Millis),
+                    String.format("%.2f", maxMillis));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class LoadTest {
+    private static final String USAGE = """
+            Usage: java -jar loadtest.jar [profile] [--clients=N] [--warmup=PT10S] [--duration=PT60S]
+                                          [--seed=N] [--url=http://host:port] [--output=report.json]
+            profile is a built-in profile (mixed, read-heavy, write-heavy) or a path to a profile JSON file.
+            Without --url the application is started on a random port with an in-memory H2 database
+            and seeded with the profile dataset.""";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        String profileName = "mixed";
+        for (String arg : args) {
+            if (arg.equals("--help")) {
+                System.out.println(USAGE);
+                return;
+            }
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                profileName = arg;
+            }
+        }
+        LoadProfile profile = LoadProfile.load(profileName);
+        if (options.containsKey("clients")) {
+            profile = profile.withClients(Integer.parseInt(options.get("clients")));
+        }
+        if (options.containsKey("warmup")) {
+            profile = profile.withWarmup(duration(options.get("warmup")));
+        }
+        if (options.containsKey("duration")) {
+            profile = profile.withDuration(duration(options.get("duration")));
+        }
+        if (options.containsKey("seed")) {
+            profile = profile.withSeed(Long.parseLong(options.get("seed")));
+        }
+
+        ConfigurableApplicationContext context = null;
+        try (ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .executor(httpExecutor)
+                     .build()) {
+            URI baseUri;
+            if (options.containsKey("url")) {
+                baseUri = URI.create(options.get("url"));
+            } else {
+                context = startApplication();
+                baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer()
+                        .getPort());
+                System.out.printf("Started filmorate on %s, seeding %s%n", baseUri, profile.dataset());
+                new DatasetSeeder(http, baseUri, profile.dataset(), profile.seed()).seed();
+            }
+            LoadReport report = run(http, baseUri, profile);
+            report.print(System.out);
+            if (options.containsKey("output")) {
+                report.write(new File(options.get("output")));
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication() {
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .logStartupInfo(false)
+                .run("--server.port=0",
+                        "--management.server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.zalando.logbook=OFF");
+    }
+
+    private static LoadReport run(HttpClient http, URI baseUri, LoadProfile profile) {
+        System.out.printf("Running profile %s with %d clients: %s warmup, %s measurement%n", profile.name(),
+                profile.clients(), profile.warmup(), profile.duration());
+        LoadProfile.Mix mix = profile.requestMix();
+        long measureFrom = System.nanoTime() + profile.warmup().toNanos();
+        long end = measureFrom + profile.duration().toNanos();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < profile.clients(); i++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                Random random = new Random(profile.seed() + i);
+                recorders.add(recorder);
+                clients.execute(() -> runClient(http, baseUri, profile, mix, random, recorder, measureFrom, end));
+            }
+        }
+        return LoadReport.of(profile, LatencyRecorder.merge(recorders), profile.duration().toNanos());
+    }
+
+    private static void runClient(HttpClient http, URI baseUri, LoadProfile profile, LoadProfile.Mix mix,
+                                  Random random, LatencyRecorder recorder, long measureFrom, long end) {
+        long start;
+        while ((start = System.nanoTime()) < end) {
+            Endpoint endpoint = mix.next(random);
+            HttpRequest request = endpoint.request(baseUri, profile.dataset(), random);
+            boolean success;
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                success = response.statusCode() < 400;
+            } catch (IOException e) {
+                success = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (start >= measureFrom) {
+                recorder.record(endpoint, System.nanoTime() - start, success);
+            }
+        }
+    }
+
+    private static Duration duration(String value) {
+        return value.chars().allMatch(Character::isDigit) ? Duration.ofSeconds(Long.parseLong(value))
+                : Duration.parse(value);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+    @Bean
+    public PoolWaitTracker poolWaitTracker() {
+        return new PoolWaitTracker();
+    }
+
+    @Bean
+    public static QueryTracker queryTracker(Environment environment) {
+        return new QueryTracker(environment.getProperty("filmorate.query-metrics.slow-query-threshold",
+                Duration.class, Duration.ofMillis(200)));
+    }
+
+    @Bean
+    public static QueryInstrumentation queryInstrumentation(QueryTracker queryTracker) {
+        return new QueryInstrumentation(queryTracker);
+    }
+
+    @Bean
+    @ConfigurationProperties("filmorate.datasource.write")
+    public HikariDataSource writeDataSource(DataSourceProperties properties, PoolWaitTracker poolWaitTracker) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("filmorate-write");
+        dataSource.setMetricsTrackerFactory(poolWaitTracker);
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("filmorate.datasource.read")
+    public HikariDataSource readDataSource(DataSourceProperties properties, PoolWaitTracker poolWaitTracker) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("filmorate-read");
+        dataSource.setReadOnly(true);
+        dataSource.setMetricsTrackerFactory(poolWaitTracker);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writeDataSource, HikariDataSource readDataSource) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.WRITE, writeDataSource,
+                ReadWriteRoutingDataSource.Route.READ, readDataSource));
+        routing.setDefaultTargetDataSource(writeDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
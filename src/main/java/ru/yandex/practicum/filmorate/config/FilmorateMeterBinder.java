@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.service.EventWriter;
+import ru.yandex.practicum.filmorate.service.FilmRecommender;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.ReviewService;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+@Component
+@RequiredArgsConstructor
+public class FilmorateMeterBinder implements MeterBinder {
+    private final FilmService filmService;
+    private final ReviewService reviewService;
+    private final FilmRecommender filmRecommender;
+    private final EventWriter eventWriter;
+    private final PoolWaitTracker poolWaitTracker;
+    private final ObjectProvider<HikariDataSource> dataSources;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("filmorate.likes", filmService, FilmService::getLikesAdded)
+                .description("Film likes that changed the like set")
+                .tag("operation", "add")
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes", filmService, FilmService::getLikesRemoved)
+                .description("Film likes that changed the like set")
+                .tag("operation", "remove")
+                .register(registry);
+        FunctionCounter.builder("filmorate.review.votes", reviewService, ReviewService::getVotesAdded)
+                .description("Review likes and dislikes")
+                .tag("operation", "add")
+                .register(registry);
+        FunctionCounter.builder("filmorate.review.votes", reviewService, ReviewService::getVotesRemoved)
+                .description("Review likes and dislikes")
+                .tag("operation", "remove")
+                .register(registry);
+
+        FunctionCounter.builder("filmorate.recommendations.cache", filmRecommender, FilmRecommender::getCacheHits)
+                .description("Recommendation cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.recommendations.cache", filmRecommender, FilmRecommender::getCacheMisses)
+                .description("Recommendation cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("filmorate.recommendations.cache.hit.ratio", filmRecommender, this::hitRatio)
+                .description("Share of recommendation requests served from the cache since start")
+                .register(registry);
+        Gauge.builder("filmorate.recommendations.cache.size", filmRecommender, FilmRecommender::getCacheSize)
+                .description("Users with cached recommendations")
+                .register(registry);
+
+        FunctionCounter.builder("filmorate.events.written", eventWriter, EventWriter::getWrittenEvents)
+                .description("Feed events appended to the event log")
+                .register(registry);
+        FunctionCounter.builder("filmorate.events.rejected", eventWriter, EventWriter::getRejectedEvents)
+                .description("Feed events written on the caller thread because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("filmorate.events.failed", eventWriter, EventWriter::getFailedEvents)
+                .description("Feed events that could not be written")
+                .register(registry);
+        Gauge.builder("filmorate.events.queue.depth", eventWriter, EventWriter::getQueueDepth)
+                .description("Feed events waiting for the writer thread")
+                .register(registry);
+        FunctionTimer.builder("filmorate.events.flush", eventWriter, EventWriter::getFlushes,
+                        EventWriter::getFlushNanos, TimeUnit.NANOSECONDS)
+                .description("Event log flushes")
+                .register(registry);
+        Gauge.builder("filmorate.events.flush.max", eventWriter, writer -> writer.getMaxFlushNanos() / 1e9)
+                .description("Longest event log flush since start")
+                .baseUnit("seconds")
+                .register(registry);
+
+        dataSources.orderedStream().forEach(dataSource -> {
+            String pool = dataSource.getPoolName();
+            FunctionTimer.builder("filmorate.datasource.connection.wait", poolWaitTracker,
+                            tracker -> tracker.getStats(pool).getAcquisitions(),
+                            tracker -> tracker.getStats(pool).getWaitNanos(), TimeUnit.NANOSECONDS)
+                    .description("Time spent waiting for a pooled connection")
+                    .tag("pool", pool)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.datasource.connection.timeouts", poolWaitTracker,
+                            tracker -> tracker.getStats(pool).getTimeouts())
+                    .description("Connection requests that hit connection-timeout")
+                    .tag("pool", pool)
+                    .register(registry);
+            bindPool(registry, dataSource);
+        });
+    }
+
+    // The pools carry PoolWaitTracker as their metrics tracker, and Boot only binds its own HikariCP meters to pools
+    // without one, so the standard hikaricp.connections.* meters are registered here.
+    private void bindPool(MeterRegistry registry, HikariDataSource dataSource) {
+        String pool = dataSource.getPoolName();
+        poolGauge(registry, "hikaricp.connections", "Total connections", dataSource,
+                HikariPoolMXBean::getTotalConnections);
+        poolGauge(registry, "hikaricp.connections.active", "Active connections", dataSource,
+                HikariPoolMXBean::getActiveConnections);
+        poolGauge(registry, "hikaricp.connections.idle", "Idle connections", dataSource,
+                HikariPoolMXBean::getIdleConnections);
+        poolGauge(registry, "hikaricp.connections.pending", "Threads awaiting connections", dataSource,
+                HikariPoolMXBean::getThreadsAwaitingConnection);
+        Gauge.builder("hikaricp.connections.max", dataSource, HikariDataSource::getMaximumPoolSize)
+                .description("Max connections")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("hikaricp.connections.min", dataSource, HikariDataSource::getMinimumIdle)
+                .description("Min connections")
+                .tag("pool", pool)
+                .register(registry);
+        FunctionTimer.builder("hikaricp.connections.usage", poolWaitTracker,
+                        tracker -> tracker.getStats(pool).getUsages(),
+                        tracker -> tracker.getStats(pool).getUsageMillis(), TimeUnit.MILLISECONDS)
+                .description("Connection usage time")
+                .tag("pool", pool)
+                .register(registry);
+    }
+
+    private void poolGauge(MeterRegistry registry, String name, String description, HikariDataSource dataSource,
+                           ToIntFunction<HikariPoolMXBean> value) {
+        Gauge.builder(name, dataSource, source -> {
+                    HikariPoolMXBean pool = source.getHikariPoolMXBean();
+                    return pool == null ? Double.NaN : value.applyAsInt(pool);
+                })
+                .description(description)
+                .tag("pool", dataSource.getPoolName())
+                .register(registry);
+    }
+
+    private double hitRatio(FilmRecommender recommender) {
+        long hits = recommender.getCacheHits();
+        long lookups = hits + recommender.getCacheMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
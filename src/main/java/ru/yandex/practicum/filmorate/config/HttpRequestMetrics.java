@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@RequiredArgsConstructor
+public class HttpRequestMetrics implements HandlerInterceptor {
+    public static final String METRIC_NAME = "http.server.requests";
+    private static final String START_ATTRIBUTE = HttpRequestMetrics.class.getName() + ".start";
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        TimerKey key = new TimerKey(request.getMethod(), pattern == null ? UNKNOWN_URI : pattern.toString(),
+                response.getStatus(), ex == null ? null : ex.getClass());
+        timers.computeIfAbsent(key, this::register).record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer register(TimerKey key) {
+        return Timer.builder(METRIC_NAME)
+                .description("HTTP requests handled by the controllers")
+                .tag("method", key.method())
+                .tag("uri", key.uri())
+                .tag("status", String.valueOf(key.status()))
+                .tag("outcome", Outcome.forStatus(key.status()).name())
+                .tag("exception", key.exception() == null ? "none" : key.exception().getSimpleName())
+                .register(meterRegistry);
+    }
+
+    private record TimerKey(String method, String uri, int status, Class<?> exception) {
+    }
+}
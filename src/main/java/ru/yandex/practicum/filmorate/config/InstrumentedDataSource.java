@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class InstrumentedDataSource extends DelegatingDataSource {
+    private final QueryTracker queryTracker;
+
+    public InstrumentedDataSource(DataSource targetDataSource, QueryTracker queryTracker) {
+        super(targetDataSource);
+        this.queryTracker = queryTracker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                return proxy(PreparedStatement.class, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                return proxy(Statement.class, new StatementHandler(statement, null));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final List<String> parameterTypes = new ArrayList<>();
+        private String sql;
+        private int batchSize;
+        private ResultSetHandler openResultSet;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(index, name.equals("setNull") || args[1] == null ? "null" : args[1].getClass().getSimpleName());
+            } else if (name.equals("clearParameters")) {
+                parameterTypes.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize++;
+                if (args != null && sql == null) {
+                    sql = (String) args[0];
+                }
+            } else if (name.equals("close") && openResultSet != null) {
+                openResultSet.finish();
+            }
+            return InstrumentedDataSource.invoke(target, method, args);
+        }
+
+        private void bind(int index, String type) {
+            while (parameterTypes.size() < index) {
+                parameterTypes.add("?");
+            }
+            parameterTypes.set(index - 1, type);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String statementSql = args != null && args[0] instanceof String text ? text : sql == null ? "" : sql;
+            String statementName = queryTracker.resolveName(statementSql);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                record(statementName, statementSql, System.nanoTime() - start, 0, true);
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (result instanceof ResultSet resultSet) {
+                openResultSet = new ResultSetHandler(resultSet, this, statementName, statementSql, elapsed);
+                return proxy(ResultSet.class, openResultSet);
+            }
+            record(statementName, statementSql, elapsed, rows(result), false);
+            return result;
+        }
+
+        private long rows(Object result) throws SQLException {
+            return switch (result) {
+                case Integer count -> Math.max(count, 0);
+                case Long count -> Math.max(count, 0);
+                case int[] counts -> Arrays.stream(counts).mapToLong(StatementHandler::batchRows).sum();
+                case long[] counts -> Arrays.stream(counts).map(StatementHandler::batchRows).sum();
+                case Boolean hasResultSet when !hasResultSet -> Math.max(target.getUpdateCount(), 0);
+                default -> 0;
+            };
+        }
+
+        private static long batchRows(long count) {
+            return count > 0 ? count : count == Statement.SUCCESS_NO_INFO ? 1 : 0;
+        }
+
+        private void record(String statementName, String statementSql, long elapsed, long rows, boolean failed) {
+            queryTracker.record(statementName, statementSql, elapsed, rows, failed, parameterTypes, batchSize);
+            batchSize = 0;
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final StatementHandler statement;
+        private final String statementName;
+        private final String statementSql;
+        private long elapsedNanos;
+        private long rows;
+        private boolean failed;
+        private boolean finished;
+
+        ResultSetHandler(ResultSet target, StatementHandler statement, String statementName, String statementSql,
+                         long elapsedNanos) {
+            this.target = target;
+            this.statement = statement;
+            this.statementName = statementName;
+            this.statementSql = statementSql;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("next")) {
+                long start = System.nanoTime();
+                try {
+                    boolean hasRow = (Boolean) InstrumentedDataSource.invoke(target, method, args);
+                    rows += hasRow ? 1 : 0;
+                    return hasRow;
+                } catch (Throwable e) {
+                    failed = true;
+                    throw e;
+                } finally {
+                    elapsedNanos += System.nanoTime() - start;
+                }
+            }
+            if (method.getName().equals("close")) {
+                finish();
+            }
+            return InstrumentedDataSource.invoke(target, method, args);
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                statement.record(statementName, statementSql, elapsedNanos, rows, failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PoolWaitTracker implements MetricsTrackerFactory {
+    private final Map<String, WaitStats> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        WaitStats stats = pools.computeIfAbsent(poolName, v -> new WaitStats());
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                stats.acquisitions.increment();
+                stats.waitNanos.add(elapsedAcquiredNanos);
+                stats.maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                stats.usages.increment();
+                stats.usageMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                stats.timeouts.increment();
+            }
+        };
+    }
+
+    public WaitStats getStats(String poolName) {
+        return pools.getOrDefault(poolName, new WaitStats());
+    }
+
+    public static class WaitStats {
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final LongAdder usages = new LongAdder();
+        private final LongAdder usageMillis = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        public long getAcquisitions() {
+            return acquisitions.sum();
+        }
+
+        public long getWaitNanos() {
+            return waitNanos.sum();
+        }
+
+        public long getMaxWaitNanos() {
+            return maxWaitNanos.get();
+        }
+
+        public long getUsages() {
+            return usages.sum();
+        }
+
+        public long getUsageMillis() {
+            return usageMillis.sum();
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+    }
+}
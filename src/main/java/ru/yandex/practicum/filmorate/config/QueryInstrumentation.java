@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+@RequiredArgsConstructor
+public class QueryInstrumentation implements BeanPostProcessor {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final QueryTracker queryTracker;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (AnnotationUtils.findAnnotation(bean.getClass(), Repository.class) != null) {
+            queryTracker.registerStatements(bean.getClass());
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && DATA_SOURCE_BEAN.equals(beanName)) {
+            return new InstrumentedDataSource(dataSource, queryTracker);
+        }
+        return bean;
+    }
+}
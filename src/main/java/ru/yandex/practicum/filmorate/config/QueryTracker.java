@@ -0,0 +1,183 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+@Slf4j
+public class QueryTracker {
+    public static final long[] BUCKET_BOUNDS_MICROS = {100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000};
+    private static final int MAX_CACHED_STATEMENTS = 10_000;
+    private static final int SQL_PREFIX_LENGTH = 120;
+    private static final String UNNAMED_SUFFIX = " (unnamed)";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):[A-Za-z_]\\w*");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*(\\?(\\s*,\\s*\\?)*)?\\s*\\)");
+
+    private final Map<String, String> statementNames = new ConcurrentHashMap<>();
+    private final Map<String, String> resolvedNames = new ConcurrentHashMap<>();
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final long slowQueryNanos;
+
+    public QueryTracker(Duration slowQueryThreshold) {
+        this.slowQueryNanos = slowQueryThreshold.toNanos();
+    }
+
+    public void registerStatements(Class<?> type) {
+        for (Field field : type.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                String sql = (String) field.get(null);
+                if (sql != null) {
+                    statementNames.put(normalize(sql), type.getSimpleName() + "." + field.getName());
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                log.debug("Cannot read statement {}.{}: {}", type.getSimpleName(), field.getName(), e.getMessage());
+            }
+        }
+        resolvedNames.clear();
+    }
+
+    public String resolveName(String sql) {
+        String name = resolvedNames.get(sql);
+        if (name != null) {
+            return name;
+        }
+        name = lookup(normalize(sql));
+        if (resolvedNames.size() < MAX_CACHED_STATEMENTS) {
+            resolvedNames.put(sql, name);
+        }
+        return name;
+    }
+
+    public void record(String name, String sql, long elapsedNanos, long rows, boolean failed,
+                       List<String> parameterTypes, int batchSize) {
+        statements.computeIfAbsent(name, v -> new StatementStats()).record(elapsedNanos, rows, failed);
+        if (elapsedNanos >= slowQueryNanos) {
+            log.warn("Slow query {}: {} ms, {} rows, parameters {}{}", name, elapsedNanos / 1_000_000, rows,
+                    parameterShape(parameterTypes, batchSize),
+                    name.endsWith(UNNAMED_SUFFIX) ? ", sql " + prefix(sql) : "");
+        }
+    }
+
+    public Map<String, StatementStats> getStatements() {
+        return statements;
+    }
+
+    private String lookup(String normalized) {
+        String name = statementNames.get(normalized);
+        if (name != null) {
+            return name;
+        }
+        String longestPrefix = null;
+        for (Map.Entry<String, String> statement : statementNames.entrySet()) {
+            if (normalized.startsWith(statement.getKey())
+                    && (longestPrefix == null || statement.getKey().length() > longestPrefix.length())) {
+                longestPrefix = statement.getKey();
+                name = statement.getValue();
+            }
+        }
+        if (name != null) {
+            return name;
+        }
+        int verbEnd = normalized.indexOf(' ');
+        return (verbEnd < 0 ? normalized : normalized.substring(0, verbEnd)).toUpperCase() + UNNAMED_SUFFIX;
+    }
+
+    private static String prefix(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return normalized.length() > SQL_PREFIX_LENGTH
+                ? normalized.substring(0, SQL_PREFIX_LENGTH) + "..." : normalized;
+    }
+
+    private static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = NAMED_PARAMETER.matcher(normalized).replaceAll("?");
+        return PARAMETER_LIST.matcher(normalized).replaceAll("(?)");
+    }
+
+    private static String parameterShape(List<String> parameterTypes, int batchSize) {
+        StringBuilder shape = new StringBuilder();
+        if (batchSize > 0) {
+            shape.append("batch of ").append(batchSize).append(" x ");
+        }
+        shape.append('[');
+        for (int i = 0; i < parameterTypes.size(); ) {
+            String type = parameterTypes.get(i);
+            int run = 1;
+            while (i + run < parameterTypes.size() && type.equals(parameterTypes.get(i + run))) {
+                run++;
+            }
+            shape.append(i == 0 ? "" : ", ").append(type).append(run > 1 ? " x" + run : "");
+            i += run;
+        }
+        return shape.append(']').toString();
+    }
+
+    public static class StatementStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+
+        void record(long elapsedNanos, long rowCount, boolean failed) {
+            calls.increment();
+            if (failed) {
+                errors.increment();
+            }
+            rows.add(rowCount);
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            long micros = elapsedNanos / 1000;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MICROS.length && micros > BUCKET_BOUNDS_MICROS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public long[] getBuckets() {
+            long[] counts = new long[buckets.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return counts;
+        }
+    }
+}
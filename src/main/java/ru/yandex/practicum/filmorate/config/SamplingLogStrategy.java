@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.time.Duration;
+
+@Component
+public class SamplingLogStrategy implements Strategy {
+    private static final int SAMPLE_BUCKETS = 10_000;
+
+    // Logbook calls write(Precorrelation, ...) and process(HttpRequest, HttpResponse) one after another on the
+    // request thread before the handler runs, so the sampling decision is handed over without a request attribute.
+    private final ThreadLocal<Boolean> responseSampled = new ThreadLocal<>();
+
+    @Value("${filmorate.http-logging.sample-rate:0.01}")
+    private double sampleRate;
+    @Value("${filmorate.http-logging.slow-request-threshold:PT1S}")
+    private Duration slowRequestThreshold;
+    @Value("${filmorate.http-logging.error-status:400}")
+    private int errorStatus;
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        return request.withBody();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request, Sink sink) {
+        responseSampled.set(isSampled(precorrelation));
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        boolean sampled = Boolean.TRUE.equals(responseSampled.get());
+        responseSampled.remove();
+        return sampled ? response.withBody() : response.withoutBody();
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response, Sink sink)
+            throws IOException {
+        if (response.getStatus() >= errorStatus
+                || correlation.getDuration().compareTo(slowRequestThreshold) >= 0
+                || isSampled(correlation)) {
+            sink.writeBoth(correlation, request, response);
+        }
+    }
+
+    private boolean isSampled(Precorrelation precorrelation) {
+        return Math.floorMod(precorrelation.getId().hashCode(), SAMPLE_BUCKETS) < sampleRate * SAMPLE_BUCKETS;
+    }
+}
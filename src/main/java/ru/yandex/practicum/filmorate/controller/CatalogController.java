@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.enums.CatalogEntity;
+import ru.yandex.practicum.filmorate.service.CatalogExporter;
+import ru.yandex.practicum.filmorate.service.CatalogImporter;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/internal/catalog")
+public class CatalogController {
+    private final CatalogImporter catalogImporter;
+    private final CatalogExporter catalogExporter;
+
+    @PostMapping("/import/{entity}")
+    public ImportReport importCatalog(@PathVariable String entity,
+                                      @RequestParam(required = false) String importId,
+                                      InputStream body) throws IOException {
+        return catalogImporter.importNdjson(CatalogEntity.from(entity), importId, body);
+    }
+
+    @GetMapping(path = "/export/{entity}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@PathVariable String entity) {
+        CatalogEntity catalogEntity = CatalogEntity.from(entity);
+        return ResponseEntity.ok()
+                .body(output -> catalogExporter.exportNdjson(catalogEntity, output));
+    }
+}
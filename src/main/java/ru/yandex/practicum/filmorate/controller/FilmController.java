@@ -1,14 +1,22 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -22,8 +30,43 @@ public class FilmController {
     }
 
     @GetMapping
-    public Collection<Film> findAll() {
-        return filmService.findAll();
+    public Collection<Film> findAll(
+            @RequestParam(required = false)
+            @Min(value = 1, message = "The number of films must be greater than zero.")
+            @Max(value = 1000, message = "The number of films must not exceed 1000.") final Integer limit,
+            @RequestParam(required = false) final Long afterId
+    ) {
+        if (limit == null && afterId == null) {
+            return filmService.findAll();
+        }
+        return filmService.findPage(afterId, limit);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<ResponseBodyEmitter> streamAll() {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        Thread.ofVirtual().name("films-stream").start(() -> {
+            try {
+                filmService.streamAll(chunk -> {
+                    Set<ResponseBodyEmitter.DataWithMediaType> items = new LinkedHashSet<>();
+                    for (Film film : chunk) {
+                        items.add(new ResponseBodyEmitter.DataWithMediaType(film, MediaType.APPLICATION_JSON));
+                        items.add(new ResponseBodyEmitter.DataWithMediaType("\n", MediaType.TEXT_PLAIN));
+                    }
+                    try {
+                        emitter.send(items);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                emitter.complete();
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(emitter);
     }
 
     @GetMapping("/{id}")
@@ -54,6 +97,11 @@ public class FilmController {
         return filmService.create(film);
     }
 
+    @PostMapping("/batch")
+    public List<Film> createAll(@RequestBody List<@Valid Film> films) {
+        return filmService.createAll(films);
+    }
+
     @PutMapping
     public Film updateFilm(@Valid @RequestBody Film newFilm) {
         return filmService.updateFilm(newFilm);
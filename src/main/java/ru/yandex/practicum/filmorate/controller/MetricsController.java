@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.ConnectionPoolStats;
+import ru.yandex.practicum.filmorate.model.QueryStats;
+import ru.yandex.practicum.filmorate.service.PoolMetrics;
+import ru.yandex.practicum.filmorate.service.QueryMetrics;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/internal/metrics")
+public class MetricsController {
+    private final PoolMetrics poolMetrics;
+    private final QueryMetrics queryMetrics;
+
+    @GetMapping("/pools")
+    public List<ConnectionPoolStats> getPools() {
+        return poolMetrics.getPools();
+    }
+
+    @GetMapping("/queries")
+    public List<QueryStats> getQueries() {
+        return queryMetrics.getQueries();
+    }
+}
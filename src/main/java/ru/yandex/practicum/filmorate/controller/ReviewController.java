@@ -40,11 +40,13 @@ public class ReviewController {
 
     @GetMapping
     public Collection<Review> getReviewsToFilm(@RequestParam(required = false) Long filmId,
-                                               @RequestParam(defaultValue = "10") int count) {
+                                               @RequestParam(defaultValue = "10") int count,
+                                               @RequestParam(required = false) Integer afterUseful,
+                                               @RequestParam(required = false) Long afterId) {
         if (filmId == null) {
-            return reviewService.getAllReviews(count);
+            return reviewService.getAllReviews(count, afterUseful, afterId);
         } else {
-            return reviewService.getReviewsToFilm(filmId, count);
+            return reviewService.getReviewsToFilm(filmId, count, afterUseful, afterId);
         }
     }
 
@@ -1,9 +1,14 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.FeedQuery;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.EventService;
@@ -21,8 +26,16 @@ public class UserController {
     private final EventService eventService;
 
     @GetMapping
-    public Collection<User> findAll() {
-        return userService.findAll();
+    public Collection<User> findAll(
+            @RequestParam(required = false)
+            @Min(value = 1, message = "The number of users must be greater than zero.")
+            @Max(value = 1000, message = "The number of users must not exceed 1000.") final Integer limit,
+            @RequestParam(required = false) final Long afterId
+    ) {
+        if (limit == null && afterId == null) {
+            return userService.findAll();
+        }
+        return userService.findPage(afterId, limit);
     }
 
     @GetMapping("/{id}")
@@ -46,8 +59,46 @@ public class UserController {
     }
 
     @GetMapping("/{id}/feed")
-    public Collection<Event> getUserEvents(@PathVariable Long id) {
-        return eventService.findByUserId(id);
+    public Collection<Event> getUserEvents(
+            @PathVariable Long id,
+            @RequestParam(required = false) final Long since,
+            @RequestParam(required = false) final Long until,
+            @RequestParam(required = false)
+            @Min(value = 1, message = "The number of events must be greater than zero.") final Integer limit,
+            @RequestParam(required = false) final Long afterTimestamp,
+            @RequestParam(required = false) final Long afterId,
+            @RequestParam(required = false) final Long lastEventId
+    ) {
+        if (since == null && until == null && limit == null && afterId == null && afterTimestamp == null
+                && lastEventId == null) {
+            return eventService.findByUserId(id);
+        }
+        return eventService.findByUserId(id, FeedQuery.builder()
+                .since(since)
+                .until(until)
+                .limit(limit)
+                .afterTimestamp(afterTimestamp)
+                .afterId(afterId)
+                .lastEventId(lastEventId)
+                .build());
+    }
+
+    @GetMapping("/{id}/feed/friends")
+    public Collection<Event> getFriendsEvents(
+            @PathVariable Long id,
+            @RequestParam(required = false)
+            @Min(value = 1, message = "The number of events must be greater than zero.") final Integer limit
+    ) {
+        return eventService.getFriendsFeed(id, limit);
+    }
+
+    @GetMapping(path = "/{id}/feed/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @PathVariable Long id,
+            @RequestHeader(value = "Last-Event-ID", required = false) final Long lastEventIdHeader,
+            @RequestParam(required = false) final Long lastEventId
+    ) {
+        return eventService.streamFeed(id, lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
     }
 
     @PostMapping
@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.storage.film.DirectorStorage;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Primary
+@Repository
+@RequiredArgsConstructor
+public class CachingDirectorStorage implements DirectorStorage {
+    private final DirectorDbStorage directorDbStorage;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Map<Long, Director> directors;
+
+    @Override
+    public Director create(Director director) {
+        try {
+            return directorDbStorage.create(director);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public Director updateDirector(Director director) {
+        try {
+            return directorDbStorage.updateDirector(director);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public Optional<Director> findDirector(Long id) {
+        Director director = id == null ? null : load().get(id);
+        if (director == null) {
+            throw new NotFoundException("Director with id " + id + " not found");
+        }
+        return Optional.of(copy(director));
+    }
+
+    @Override
+    public Collection<Director> findAll() {
+        return load().values().stream()
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public Collection<Director> findDirectors(Collection<Long> ids) {
+        Map<Long, Director> current = load();
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .map(current::get)
+                .filter(Objects::nonNull)
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public void removeDirector(Long id) {
+        try {
+            directorDbStorage.removeDirector(id);
+        } finally {
+            invalidate();
+        }
+    }
+
+    public synchronized void invalidate() {
+        version.incrementAndGet();
+        directors = null;
+    }
+
+    private Map<Long, Director> load() {
+        long loadedVersion = version.get();
+        Map<Long, Director> current = directors;
+        if (current == null) {
+            Collection<Director> loaded = directorDbStorage.findAll();
+            current = new TreeMap<>();
+            for (Director director : loaded) {
+                current.put(director.getId(), director);
+            }
+            synchronized (this) {
+                if (version.get() == loadedVersion) {
+                    directors = current;
+                }
+            }
+            log.debug("Director cache loaded with {} directors", loaded.size());
+        }
+        return current;
+    }
+
+    private Director copy(Director director) {
+        return new Director(director.getId(), director.getName());
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.GenreStorage;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+@Slf4j
+@Primary
+@Repository
+@RequiredArgsConstructor
+public class CachingGenreStorage implements GenreStorage {
+    private final GenreDbStorage genreDbStorage;
+    private volatile Map<Integer, Genre> genres = Map.of();
+
+    @PostConstruct
+    public void reload() {
+        Map<Integer, Genre> loaded = new TreeMap<>();
+        genreDbStorage.findAll().forEach(genre -> loaded.put(genre.getId(), genre));
+        genres = loaded;
+        log.info("Genre cache loaded with {} genres", loaded.size());
+    }
+
+    @Override
+    public Genre findGenre(Integer id) {
+        Genre genre = id == null ? null : genres.get(id);
+        if (genre == null) {
+            throw new NotFoundException("Genre with id " + id + " not found");
+        }
+        return copy(genre);
+    }
+
+    @Override
+    public Collection<Genre> findAll() {
+        return genres.values().stream()
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public Collection<Genre> findGenres(Collection<Integer> ids) {
+        Map<Integer, Genre> current = genres;
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .map(current::get)
+                .filter(Objects::nonNull)
+                .map(this::copy)
+                .toList();
+    }
+
+    private Genre copy(Genre genre) {
+        return new Genre(genre.getId(), genre.getName());
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.MpaStorage;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+@Slf4j
+@Primary
+@Repository
+@RequiredArgsConstructor
+public class CachingMpaStorage implements MpaStorage {
+    private final MpaDbStorage mpaDbStorage;
+    private volatile Map<Integer, Mpa> ratings = Map.of();
+
+    @PostConstruct
+    public void reload() {
+        Map<Integer, Mpa> loaded = new TreeMap<>();
+        mpaDbStorage.findAll().forEach(mpa -> loaded.put(mpa.getId(), mpa));
+        ratings = loaded;
+        log.info("MPA cache loaded with {} ratings", loaded.size());
+    }
+
+    @Override
+    public Mpa findMpa(Integer id) {
+        Mpa mpa = id == null ? null : ratings.get(id);
+        if (mpa == null) {
+            throw new NotFoundException("Mpa with id " + id + " not found");
+        }
+        return copy(mpa);
+    }
+
+    @Override
+    public Collection<Mpa> findAll() {
+        return ratings.values().stream()
+                .map(this::copy)
+                .toList();
+    }
+
+    @Override
+    public Collection<Mpa> findMpas(Collection<Integer> ids) {
+        Map<Integer, Mpa> current = ratings;
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .map(current::get)
+                .filter(Objects::nonNull)
+                .map(this::copy)
+                .toList();
+    }
+
+    private Mpa copy(Mpa mpa) {
+        return new Mpa(mpa.getId(), mpa.getName());
+    }
+}
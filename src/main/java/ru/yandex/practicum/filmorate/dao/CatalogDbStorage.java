@@ -0,0 +1,219 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.CatalogEntity;
+import ru.yandex.practicum.filmorate.storage.catalog.CatalogStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmDirectorStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmGenreStorage;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class CatalogDbStorage implements CatalogStorage {
+    private static final String MERGE_FILM = """
+            MERGE INTO films (id, name, description, releaseDate, duration, mpa_id)
+            KEY (id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String DELETE_FILMS_GENRES = """
+            DELETE FROM filmGenre
+            WHERE film_id IN (:filmIds)
+            """;
+    private static final String DELETE_FILMS_DIRECTORS = """
+            DELETE FROM filmDirector
+            WHERE film_id IN (:filmIds)
+            """;
+    private static final String MERGE_USER = """
+            MERGE INTO users (id, email, login, name, birthday)
+            KEY (id)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+    private static final String MERGE_LIKE = """
+            MERGE INTO likes (film_id, user_id)
+            KEY (film_id, user_id)
+            SELECT f.id, u.id
+            FROM films f
+            JOIN users u ON u.id = ?
+            WHERE f.id = ?
+            """;
+    private static final String MERGE_FRIENDSHIP = """
+            MERGE INTO friends (user_id, friend_id)
+            KEY (user_id, friend_id)
+            SELECT u.id, f.id
+            FROM users u
+            JOIN users f ON f.id = ?
+            WHERE u.id = ?
+            """;
+    private static final String GET_LIKES_PAGE = """
+            SELECT film_id, user_id
+            FROM likes
+            WHERE film_id > ? OR (film_id = ? AND user_id > ?)
+            ORDER BY film_id, user_id
+            LIMIT ?
+            """;
+    private static final String GET_FRIENDSHIPS_PAGE = """
+            SELECT user_id, friend_id
+            FROM friends
+            WHERE user_id > ? OR (user_id = ? AND friend_id > ?)
+            ORDER BY user_id, friend_id
+            LIMIT ?
+            """;
+    private static final String GET_NEXT_FILM_ID = """
+            SELECT COALESCE(MAX(id), 0) + 1
+            FROM films
+            """;
+    private static final String GET_NEXT_USER_ID = """
+            SELECT COALESCE(MAX(id), 0) + 1
+            FROM users
+            """;
+    private static final String GET_CHECKPOINT = """
+            SELECT line_no
+            FROM import_checkpoints
+            WHERE import_id = ? AND entity = ?
+            """;
+    private static final String MERGE_CHECKPOINT = """
+            MERGE INTO import_checkpoints (import_id, entity, line_no, updated_at)
+            KEY (import_id, entity)
+            VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final FilmGenreStorage filmGenreStorage;
+    private final FilmDirectorStorage filmDirectorStorage;
+
+    @Override
+    public void mergeFilms(List<Film> films) {
+        log.debug("Received request to merge {} films", films.size());
+        jdbc.batchUpdate(MERGE_FILM, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Film film = films.get(i);
+                ps.setLong(1, film.getId());
+                ps.setString(2, film.getName());
+                ps.setString(3, film.getDescription());
+                ps.setDate(4, film.getReleaseDate() == null ? null : Date.valueOf(film.getReleaseDate()));
+                ps.setInt(5, film.getDuration());
+                ps.setInt(6, film.getMpa().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return films.size();
+            }
+        });
+        Map<String, Object> filmIds = Map.of("filmIds", films.stream().map(Film::getId).toList());
+        namedJdbc.update(DELETE_FILMS_GENRES, filmIds);
+        namedJdbc.update(DELETE_FILMS_DIRECTORS, filmIds);
+        filmGenreStorage.addGenresToFilms(films);
+        filmDirectorStorage.addDirectorsToFilms(films);
+    }
+
+    @Override
+    public void mergeUsers(List<User> users) {
+        log.debug("Received request to merge {} users", users.size());
+        jdbc.batchUpdate(MERGE_USER, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                User user = users.get(i);
+                ps.setLong(1, user.getId());
+                ps.setString(2, user.getEmail());
+                ps.setString(3, user.getLogin());
+                ps.setString(4, user.getName());
+                ps.setDate(5, Date.valueOf(user.getBirthday()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return users.size();
+            }
+        });
+    }
+
+    @Override
+    public int[] mergeLikes(List<Like> likes) {
+        log.debug("Received request to merge {} likes", likes.size());
+        return jdbc.batchUpdate(MERGE_LIKE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, likes.get(i).getUserId());
+                ps.setLong(2, likes.get(i).getFilmId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return likes.size();
+            }
+        });
+    }
+
+    @Override
+    public int[] mergeFriendships(List<Friendship> friendships) {
+        log.debug("Received request to merge {} friendships", friendships.size());
+        return jdbc.batchUpdate(MERGE_FRIENDSHIP, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, friendships.get(i).getFriendId());
+                ps.setLong(2, friendships.get(i).getUserId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return friendships.size();
+            }
+        });
+    }
+
+    @Override
+    public List<Like> findLikesPage(Like after, int limit) {
+        return jdbc.query(GET_LIKES_PAGE, (rs, rowNum) -> new Like(rs.getLong("film_id"), rs.getLong("user_id")),
+                after.getFilmId(), after.getFilmId(), after.getUserId(), limit);
+    }
+
+    @Override
+    public List<Friendship> findFriendshipsPage(Friendship after, int limit) {
+        return jdbc.query(GET_FRIENDSHIPS_PAGE,
+                (rs, rowNum) -> new Friendship(rs.getLong("user_id"), rs.getLong("friend_id")),
+                after.getUserId(), after.getUserId(), after.getFriendId(), limit);
+    }
+
+    @Override
+    public void restartFilmIds() {
+        Long next = jdbc.queryForObject(GET_NEXT_FILM_ID, Long.class);
+        jdbc.execute("ALTER TABLE films ALTER COLUMN id RESTART WITH " + next);
+        log.debug("Film ids restarted with {}", next);
+    }
+
+    @Override
+    public void restartUserIds() {
+        Long next = jdbc.queryForObject(GET_NEXT_USER_ID, Long.class);
+        jdbc.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + next);
+        log.debug("User ids restarted with {}", next);
+    }
+
+    @Override
+    public Optional<Long> findCheckpoint(String importId, CatalogEntity entity) {
+        return jdbc.queryForList(GET_CHECKPOINT, Long.class, importId, entity.name()).stream().findFirst();
+    }
+
+    @Override
+    public void saveCheckpoint(String importId, CatalogEntity entity, long line) {
+        jdbc.update(MERGE_CHECKPOINT, importId, entity.name(), line);
+    }
+}
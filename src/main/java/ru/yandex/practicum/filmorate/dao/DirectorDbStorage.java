@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
@@ -16,6 +17,7 @@ import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -45,7 +47,13 @@ DirectorDbStorage implements DirectorStorage {
             SELECT *
             FROM directors
             """;
+    private static final String GET_DIRECTORS_BY_IDS = """
+            SELECT *
+            FROM directors
+            WHERE id IN (:ids)
+            """;
     private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
     private final DirectorRowMapper directorRowMapper;
 
     @Override
@@ -105,6 +113,15 @@ DirectorDbStorage implements DirectorStorage {
         return directors;
     }
 
+    @Override
+    public Collection<Director> findDirectors(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        log.debug("Received request to find {} directors", ids.size());
+        return namedJdbc.query(GET_DIRECTORS_BY_IDS, Map.of("ids", ids), directorRowMapper);
+    }
+
     @Override
     public void removeDirector(Long id) {
         log.debug("Received request to remove director with ID: {}", id);
@@ -2,21 +2,25 @@ package ru.yandex.practicum.filmorate.dao;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dao.mappers.EventRowMapper;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Event;
-import ru.yandex.practicum.filmorate.model.enums.EventType;
-import ru.yandex.practicum.filmorate.model.enums.Operation;
+import ru.yandex.practicum.filmorate.model.FeedQuery;
 import ru.yandex.practicum.filmorate.storage.event.EventStorage;
 
 import java.sql.PreparedStatement;
-import java.sql.Statement;
-import java.util.Arrays;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 @RequiredArgsConstructor
@@ -35,42 +39,116 @@ public class EventDbStorage implements EventStorage {
             SELECT *
             FROM events
             WHERE user_id = ?
-            ORDER BY created_at ASC
+            ORDER BY created_at ASC, id
+            """;
+    private static final String GET_FEED = """
+            SELECT *
+            FROM events
+            WHERE user_id = ?
             """;
     private static final String INSERT_EVENT = """
             INSERT INTO events(user_id, event_type, operation, entity_id, created_at)
             VALUES (?, ?, ?, ?, ?)
             """;
+    private static final String GET_EVENTS_BY_IDS = """
+            SELECT *
+            FROM events
+            WHERE id IN (:ids)
+            ORDER BY id DESC
+            """;
+    private static final String GET_LATEST_EVENTS_BY_USER_IDS = """
+            SELECT *
+            FROM events
+            WHERE user_id IN (:userIds)
+            ORDER BY id DESC
+            LIMIT :limit
+            """;
+    private static final String GET_LATEST_EVENTS = """
+            SELECT *
+            FROM events
+            ORDER BY id DESC
+            LIMIT ?
+            """;
+    private static final String GET_EVENTS_CREATED_BEFORE = """
+            SELECT *
+            FROM events
+            WHERE created_at < ?
+            ORDER BY created_at, id
+            LIMIT ?
+            """;
+    private static final String DELETE_EVENTS = """
+            DELETE FROM events
+            WHERE id IN (:ids)
+            """;
     private static final String DELETE_EVENT = """
             DELETE FROM events
             WHERE id = ?
             """;
     private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
     private final EventRowMapper eventRowMapper;
 
     @Override
-    public boolean add(Long entityId, Long userId, EventType eventType, Operation operation) {
-        long timestampNow = System.currentTimeMillis();
+    @Transactional
+    public void addAll(List<Event> events) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.batchUpdate(connection -> connection.prepareStatement(INSERT_EVENT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Event event = events.get(i);
+                        ps.setLong(1, event.getUserId());
+                        ps.setString(2, event.getEventType().name());
+                        ps.setString(3, event.getOperation().name());
+                        ps.setLong(4, event.getEntityId());
+                        ps.setLong(5, event.getTimestamp());
+                    }
 
-        List<Object> params = Arrays.asList(userId,
-                eventType.name(),
-                operation.name(),
-                entityId,
-                timestampNow
-        );
-        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbc.update(connection -> {
-            PreparedStatement ps = connection
-                    .prepareStatement(INSERT_EVENT, Statement.RETURN_GENERATED_KEYS);
-            for (int idx = 0; idx < params.size(); idx++) {
-                ps.setObject(idx + 1, params.get(idx));
-            }
-            return ps;
-        }, keyHolder);
+                    @Override
+                    public int getBatchSize() {
+                        return events.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < events.size() && i < keys.size(); i++) {
+            events.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+    }
 
-        Integer id = keyHolder.getKeyAs(Integer.class);
+    @Override
+    public List<Event> findByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return namedJdbc.query(GET_EVENTS_BY_IDS, Map.of("ids", ids), eventRowMapper);
+    }
+
+    @Override
+    public List<Event> findLatestByUserIds(Collection<Long> userIds, int limit) {
+        if (userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return namedJdbc.query(GET_LATEST_EVENTS_BY_USER_IDS, Map.of("userIds", userIds, "limit", limit),
+                eventRowMapper);
+    }
+
+    @Override
+    public List<Event> findLatest(int limit) {
+        List<Event> events = jdbc.query(GET_LATEST_EVENTS, eventRowMapper, limit);
+        return events.reversed();
+    }
+
+    @Override
+    public List<Event> findCreatedBefore(long createdBefore, int limit) {
+        return jdbc.query(GET_EVENTS_CREATED_BEFORE, eventRowMapper, createdBefore, limit);
+    }
 
-        return id != null;
+    @Override
+    public int removeAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedJdbc.update(DELETE_EVENTS, Map.of("ids", ids));
     }
 
     @Override
@@ -93,6 +171,39 @@ public class EventDbStorage implements EventStorage {
         }
     }
 
+    @Override
+    public List<Event> findByUserId(Long id, FeedQuery feedQuery) {
+        StringBuilder query = new StringBuilder(GET_FEED);
+        List<Object> params = new ArrayList<>();
+        params.add(id);
+        if (feedQuery.getSince() != null) {
+            query.append("AND created_at >= ?\n");
+            params.add(feedQuery.getSince());
+        }
+        if (feedQuery.getUntil() != null) {
+            query.append("AND created_at < ?\n");
+            params.add(feedQuery.getUntil());
+        }
+        if (feedQuery.getLastEventId() != null) {
+            query.append("AND id > ?\n");
+            params.add(feedQuery.getLastEventId());
+            query.append("ORDER BY id\n");
+        } else {
+            if (feedQuery.getAfterId() != null) {
+                query.append("AND (created_at > ? OR (created_at = ? AND id > ?))\n");
+                params.add(feedQuery.getAfterTimestamp());
+                params.add(feedQuery.getAfterTimestamp());
+                params.add(feedQuery.getAfterId());
+            }
+            query.append("ORDER BY created_at, id\n");
+        }
+        if (feedQuery.getLimit() != null) {
+            query.append("LIMIT ?\n");
+            params.add(feedQuery.getLimit());
+        }
+        return jdbc.query(query.toString(), eventRowMapper, params.toArray());
+    }
+
     @Override
     public Event find(long id) {
         try {
@@ -4,17 +4,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.dao.mappers.DirectorRowMapper;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dao.mappers.FilmDetailsRowMapper;
 import ru.yandex.practicum.filmorate.dao.mappers.FilmRowMapper;
-import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPopularity;
+import ru.yandex.practicum.filmorate.model.FilmTitle;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.film.FilmDirectorStorage;
 import ru.yandex.practicum.filmorate.storage.film.FilmGenreStorage;
@@ -22,7 +25,9 @@ import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,22 +36,18 @@ import java.util.stream.Collectors;
 @Repository
 @RequiredArgsConstructor
 public class FilmDbStorage implements FilmStorage {
+    private static final int FIND_ALL_CHUNK_SIZE = 1000;
     public static final String GET_COMMON_FILMS = """
-            SELECT f.*, m.id AS mpa_id, m.rate, COUNT(l.user_id) AS likes_count, g.id genre
+            SELECT f.*, m.id AS mpa_id, m.rate
             FROM films f
             JOIN mpa m ON f.mpa_id = m.id
-            LEFT JOIN likes l ON f.id = l.film_id
-            LEFT JOIN filmGenre fg ON fg.film_id = f.id
-            LEFT JOIN genres g ON g.id = fg.genre_id
             WHERE f.id IN (
-                SELECT film_id
-                FROM likes
-                WHERE user_id IN (?, ?)
-                GROUP BY film_id
-                HAVING COUNT(DISTINCT user_id) = 2
+                SELECT l1.film_id
+                FROM likes l1
+                JOIN likes l2 ON l1.film_id = l2.film_id
+                WHERE l1.user_id = ? AND l2.user_id = ?
             )
-            GROUP BY f.id, m.id, m.rate, g.id
-            ORDER BY likes_count DESC
+            ORDER BY f.likes_count DESC, f.id
             """;
     public static final String GET_DIRECTOR_FILMS_SORTED_BY_YEAR = """
             SELECT f.*, m.id AS mpa_id, m.rate
@@ -56,25 +57,73 @@ public class FilmDbStorage implements FilmStorage {
             WHERE fd.director_id = ?
             ORDER BY f.releaseDate ASC""";
     public static final String GET_DIRECTOR_FILMS_SORTED_BY_LIKES = """
-            SELECT f.*, m.id AS mpa_id, m.rate, COUNT(l.user_id) AS like_count
+            SELECT f.*, m.id AS mpa_id, m.rate
             FROM films f
             JOIN mpa m ON f.mpa_id = m.id
             JOIN filmDirector fd ON f.id = fd.film_id
-            LEFT JOIN likes l ON f.id = l.film_id
             WHERE fd.director_id = ?
-            GROUP BY f.id
-            ORDER BY like_count DESC""";
-    private static final String GET_ALL_FILMS = """
-            SELECT f.*, m.id AS mpa_id, m.rate AS mpa_name
+            ORDER BY f.likes_count DESC, f.id""";
+    private static final String GET_FILMS_PAGE = """
+            SELECT f.*, m.id AS mpa_id, m.rate
             FROM films f
             JOIN mpa m ON m.id = f.mpa_id
+            WHERE f.id > ?
+            ORDER BY f.id
+            LIMIT ?
+            """;
+    private static final String GET_FILMS_BY_IDS = """
+            SELECT f.*, m.id AS mpa_id, m.rate
+            FROM films f
+            JOIN mpa m ON m.id = f.mpa_id
+            WHERE f.id IN (:filmIds)
+            """;
+    private static final String GET_FILMS_POPULARITY = """
+            SELECT f.id, f.releaseDate, fg.genre_id, COALESCE(l.likes, 0) AS likes
+            FROM films f
+            LEFT JOIN (
+                SELECT film_id, COUNT(*) AS likes
+                FROM likes
+                GROUP BY film_id
+            ) l ON l.film_id = f.id
+            LEFT JOIN filmGenre fg ON fg.film_id = f.id
+            """;
+    private static final String GET_FILM_TITLES = """
+            SELECT f.id, f.name, fd.director_id
+            FROM films f
+            LEFT JOIN filmDirector fd ON fd.film_id = f.id
             """;
     private static final String GET_FILM_BY_ID = """
-            SELECT *
+            SELECT f.*, m.id AS mpa_id, m.rate,
+                   (SELECT ARRAY_AGG(l.user_id)
+                    FROM likes l
+                    WHERE l.film_id = f.id) AS like_ids,
+                   (SELECT ARRAY_AGG(g.id ORDER BY g.id)
+                    FROM filmGenre fg
+                    JOIN genres g ON g.id = fg.genre_id
+                    WHERE fg.film_id = f.id) AS genre_ids,
+                   (SELECT ARRAY_AGG(g.name ORDER BY g.id)
+                    FROM filmGenre fg
+                    JOIN genres g ON g.id = fg.genre_id
+                    WHERE fg.film_id = f.id) AS genre_names,
+                   (SELECT ARRAY_AGG(d.id ORDER BY d.id)
+                    FROM filmDirector fd
+                    JOIN directors d ON d.id = fd.director_id
+                    WHERE fd.film_id = f.id) AS director_ids,
+                   (SELECT ARRAY_AGG(d.name ORDER BY d.id)
+                    FROM filmDirector fd
+                    JOIN directors d ON d.id = fd.director_id
+                    WHERE fd.film_id = f.id) AS director_names
             FROM films f
             JOIN mpa m ON m.id = f.mpa_id
             WHERE f.id = ?
             """;
+    private static final String CHECK_FILM_EXISTS = """
+            SELECT EXISTS (
+                SELECT 1
+                FROM films
+                WHERE id = ?
+            )
+            """;
     private static final String INSERT_FILM = """
             INSERT INTO films(name, description, releaseDate, duration, mpa_id)
             VALUES (?, ?, ?, ?, ?)
@@ -87,22 +136,11 @@ public class FilmDbStorage implements FilmStorage {
             DELETE FROM films
             WHERE id = ?
             """;
-    private static final String GET_LIKES = """
-            SELECT user_id
-            FROM likes
-            WHERE film_id = ?
-            """;
     private static final String GET_FILM_LIKES = """
             SELECT *
             FROM likes
             WHERE film_id IN (:filmIds)
             """;
-    private static final String GET_GENRE = """
-            SELECT g.id, g.name
-            FROM filmGenre fg
-            JOIN genres g ON g.id = fg.genre_id
-            WHERE fg.film_id = ?
-            """;
     private static final String GET_FILM_GENRES = """
             SELECT *
             FROM filmGenre fg
@@ -110,41 +148,36 @@ public class FilmDbStorage implements FilmStorage {
             WHERE film_id IN (:filmIds)
             """;
     private static final String GET_FILMS_BY_TITLE = """
-            SELECT f.* , m.rate, COUNT(l.user_id) likes
+            SELECT f.*, m.rate
             FROM films f
             JOIN mpa m ON f.mpa_id = m.id
-            LEFT JOIN likes l ON f.id = l.film_id
             WHERE LOWER(f.name) LIKE LOWER(CONCAT('%', ?, '%'))
-            GROUP BY f.id
-            ORDER BY likes DESC
+            ORDER BY f.likes_count DESC, f.id
             """;
     private static final String GET_FILMS_BY_DIRECTOR = """
-            SELECT f.* , m.rate, d.name directors, COUNT(l.user_id) likes
+            SELECT f.*, m.rate
             FROM films f
             JOIN mpa m ON f.mpa_id = m.id
-            LEFT JOIN likes l ON f.id = l.film_id
-            LEFT JOIN filmDirector fd ON fd.film_id = f.id
-            LEFT JOIN directors d ON fd.director_id = d.id
-            WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', ?, '%'))
-            GROUP BY f.id
-            ORDER BY likes DESC
+            WHERE EXISTS (
+                SELECT 1
+                FROM filmDirector fd
+                JOIN directors d ON fd.director_id = d.id
+                WHERE fd.film_id = f.id AND LOWER(d.name) LIKE LOWER(CONCAT('%', ?, '%'))
+            )
+            ORDER BY f.likes_count DESC, f.id
             """;
     private static final String GET_FILMS_BY_TITLE_AND_DIRECTOR = """
-            SELECT f.* , m.rate, d.name directors, COUNT(l.user_id) likes
+            SELECT f.*, m.rate
             FROM films f
             JOIN mpa m ON f.mpa_id = m.id
-            LEFT JOIN likes l ON f.id = l.film_id
-            LEFT JOIN filmDirector fd ON fd.film_id = f.id
-            LEFT JOIN directors d ON fd.director_id = d.id
-            WHERE LOWER(f.name) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(d.name) LIKE LOWER(CONCAT('%', ?, '%'))
-            GROUP BY f.id
-            ORDER BY likes DESC
-            """;
-    private static final String GET_DIRECTOR = """
-            SELECT d.id, d.name
-            FROM filmDirector fd
-            JOIN directors d ON fd.director_id = d.id
-            WHERE fd.film_id = ?
+            WHERE LOWER(f.name) LIKE LOWER(CONCAT('%', ?, '%'))
+               OR EXISTS (
+                SELECT 1
+                FROM filmDirector fd
+                JOIN directors d ON fd.director_id = d.id
+                WHERE fd.film_id = f.id AND LOWER(d.name) LIKE LOWER(CONCAT('%', ?, '%'))
+            )
+            ORDER BY f.likes_count DESC, f.id
             """;
     private static final String GET_FILM_DIRECTORS = """
             SELECT *
@@ -177,60 +210,139 @@ public class FilmDbStorage implements FilmStorage {
             ) recommended_films ON f.id = recommended_films.film_id
             """;
     private static final String GET_TOP_FILMS = """
-            SELECT f.*, m.id AS mpa_id, m.rate, COUNT(l.user_id) AS likes_count
+            SELECT f.*, m.id AS mpa_id, m.rate
             FROM films f
             JOIN mpa m ON f.mpa_id = m.id
-            LEFT JOIN likes l ON f.id = l.film_id
-            LEFT JOIN filmGenre fg ON fg.film_id = f.id
-            LEFT JOIN genres g ON g.id = fg.genre_id
             """;
     private static final String CHECK_DIRECTOR_QUERY = """
             SELECT COUNT(*) FROM Directors
             WHERE id = ?
             """;
-    private static final String DELETE_FILMGENRE = """
-            DELETE FROM filmGenre
-            WHERE film_id = ?
-            """;
-    private static final String DELETE_FILMDIRECTOR = """
-            DELETE FROM filmDirector
-            WHERE film_id = ?
-            """;
 
     private final JdbcTemplate jdbc;
     private final NamedParameterJdbcTemplate namedJdbc;
     private final FilmRowMapper filmRowMapper;
-    private final GenreRowMapper genreRowMapper;
+    private final FilmDetailsRowMapper filmDetailsRowMapper;
     private final FilmGenreStorage filmGenreStorage;
-    private final DirectorRowMapper directorRowMapper;
     private final FilmDirectorStorage filmDirectorStorage;
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Film> findAll() {
         log.debug("Received request to retrieve all films");
-        List<Film> films = jdbc.query(GET_ALL_FILMS, filmRowMapper);
+        List<Film> films = new ArrayList<>();
+        List<Film> page;
+        long afterId = 0;
+        do {
+            page = findPage(afterId, FIND_ALL_CHUNK_SIZE);
+            films.addAll(page);
+            if (!page.isEmpty()) {
+                afterId = page.getLast().getId();
+            }
+        } while (page.size() == FIND_ALL_CHUNK_SIZE);
+        log.debug("Returning list of films");
+        return films;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Film> findPage(Long afterId, int limit) {
+        log.debug("Received request to retrieve {} films after ID {}", limit, afterId);
+        List<Film> films = jdbc.query(GET_FILMS_PAGE, filmRowMapper, afterId, limit);
         getFilmsLikes(films);
         getFilmsGenres(films);
         getFilmsDirectors(films);
-        log.debug("Returning list of films");
+        log.debug("Returning page of {} films", films.size());
+        return films;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Film> findFilmsByIds(List<Long> ids) {
+        log.debug("Received request to find {} films by ID", ids.size());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("filmIds", ids);
+        Map<Long, Film> filmsById = new HashMap<>();
+        namedJdbc.query(GET_FILMS_BY_IDS, params, filmRowMapper)
+                .forEach(film -> filmsById.put(film.getId(), film));
+        List<Film> films = ids.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        getFilmsLikes(films);
+        getFilmsGenres(films);
+        getFilmsDirectors(films);
+        log.debug("Returning {} films found by ID", films.size());
         return films;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Collection<FilmPopularity> getFilmsPopularity() {
+        log.debug("Received request to load popularity of all films");
+        Map<Long, FilmPopularity> popularity = jdbc.query(GET_FILMS_POPULARITY, rs -> {
+            Map<Long, FilmPopularity> map = new LinkedHashMap<>();
+            while (rs.next()) {
+                long filmId = rs.getLong("id");
+                FilmPopularity film = map.get(filmId);
+                if (film == null) {
+                    Date releaseDate = rs.getDate("releaseDate");
+                    film = FilmPopularity.builder()
+                            .filmId(filmId)
+                            .year(releaseDate == null ? null : releaseDate.toLocalDate().getYear())
+                            .likes(rs.getLong("likes"))
+                            .build();
+                    map.put(filmId, film);
+                }
+                int genreId = rs.getInt("genre_id");
+                if (!rs.wasNull()) {
+                    film.getGenreIds().add(genreId);
+                }
+            }
+            return map;
+        });
+        log.debug("Loaded popularity of {} films", popularity.size());
+        return popularity.values();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<FilmTitle> getFilmTitles() {
+        log.debug("Received request to load titles of all films");
+        Map<Long, FilmTitle> titles = jdbc.query(GET_FILM_TITLES, rs -> {
+            Map<Long, FilmTitle> map = new LinkedHashMap<>();
+            while (rs.next()) {
+                long filmId = rs.getLong("id");
+                FilmTitle film = map.get(filmId);
+                if (film == null) {
+                    film = FilmTitle.builder()
+                            .filmId(filmId)
+                            .name(rs.getString("name"))
+                            .build();
+                    map.put(filmId, film);
+                }
+                long directorId = rs.getLong("director_id");
+                if (!rs.wasNull()) {
+                    film.getDirectorIds().add(directorId);
+                }
+            }
+            return map;
+        });
+        log.debug("Loaded titles of {} films", titles.size());
+        return titles.values();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Film> findFilm(Long id) {
         log.debug("Received request to find film with ID {}", id);
         try {
-            Film film = jdbc.queryForObject(GET_FILM_BY_ID, filmRowMapper, id);
-            Set<Long> likes = new HashSet<>(jdbc.query(GET_LIKES,
-                    (rs, rowNum) -> rs.getLong("user_id"), id));
-            film.setLikes(likes);
-            LinkedHashSet<Genre> genres = new LinkedHashSet<>(jdbc.query(GET_GENRE, genreRowMapper, film.getId()));
-            film.setGenres(genres);
-            Set<Director> directors = new LinkedHashSet<>(jdbc.query(GET_DIRECTOR, directorRowMapper, film.getId()));
-            film.setDirectors(directors);
-
+            Film film = jdbc.queryForObject(GET_FILM_BY_ID, filmDetailsRowMapper, id);
             log.debug("Returning film details for ID {}", id);
-            return Optional.of(film);
+            return Optional.ofNullable(film);
         } catch (EmptyResultDataAccessException e) {
             log.warn("Film with ID {} not found", id);
             throw new NotFoundException("Film with id " + id + " not found");
@@ -238,6 +350,12 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    public boolean existsFilm(Long id) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(CHECK_FILM_EXISTS, Boolean.class, id));
+    }
+
+    @Override
+    @Transactional
     public Film create(Film film) {
         log.debug("Received request to create a new film: {}", film);
 
@@ -261,11 +379,41 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional
+    public List<Film> createAll(List<Film> films) {
+        log.debug("Received request to create {} films", films.size());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.batchUpdate(connection -> connection.prepareStatement(INSERT_FILM, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Film film = films.get(i);
+                        ps.setString(1, film.getName());
+                        ps.setString(2, film.getDescription());
+                        ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+                        ps.setInt(4, film.getDuration());
+                        ps.setInt(5, film.getMpa().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            films.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+        filmGenreStorage.addGenresToFilms(films);
+        filmDirectorStorage.addDirectorsToFilms(films);
+        log.debug("Successfully created {} films", films.size());
+        return films;
+    }
+
+    @Override
+    @Transactional
     public Film updateFilm(Film newFilm) {
         log.debug("Received request to update film with ID: {}", newFilm.getId());
-        jdbc.update(DELETE_FILMGENRE, newFilm.getId());
-        jdbc.update(DELETE_FILMDIRECTOR, newFilm.getId());
-
         if (newFilm.getId() == null) {
             log.warn("Failed to update film: ID is missing");
             throw new IllegalArgumentException("ID must be specified.");
@@ -283,12 +431,52 @@ public class FilmDbStorage implements FilmStorage {
             log.warn("Film update failed: Film with ID {} not found", newFilm.getId());
             throw new NotFoundException("Film with id  = " + newFilm.getId() + " not found.");
         }
-        filmGenreStorage.addGenreToFilm(newFilm.getId(), newFilm.getGenres().stream().toList());
-        filmDirectorStorage.addDirectorToFilm(newFilm.getId(), newFilm.getDirectors().stream().toList());
+        updateFilmGenres(newFilm);
+        updateFilmDirectors(newFilm);
         log.debug("Film with ID {} successfully updated", newFilm.getId());
         return newFilm;
     }
 
+    private void updateFilmGenres(Film film) {
+        Set<Integer> current = filmGenreStorage.getGenreIds(film.getId());
+        Set<Integer> requested = new HashSet<>();
+        List<Genre> added = new ArrayList<>();
+        for (Genre genre : film.getGenres()) {
+            if (requested.add(genre.getId()) && !current.contains(genre.getId())) {
+                added.add(genre);
+            }
+        }
+        List<Integer> removed = current.stream()
+                .filter(genreId -> !requested.contains(genreId))
+                .toList();
+        if (!removed.isEmpty()) {
+            filmGenreStorage.removeGenresFromFilm(film.getId(), removed);
+        }
+        if (!added.isEmpty()) {
+            filmGenreStorage.addGenreToFilm(film.getId(), added);
+        }
+    }
+
+    private void updateFilmDirectors(Film film) {
+        Set<Long> current = filmDirectorStorage.getDirectorIds(film.getId());
+        Set<Long> requested = new HashSet<>();
+        List<Director> added = new ArrayList<>();
+        for (Director director : film.getDirectors()) {
+            if (requested.add(director.getId()) && !current.contains(director.getId())) {
+                added.add(director);
+            }
+        }
+        List<Long> removed = current.stream()
+                .filter(directorId -> !requested.contains(directorId))
+                .toList();
+        if (!removed.isEmpty()) {
+            filmDirectorStorage.removeDirectorsFromFilm(film.getId(), removed);
+        }
+        if (!added.isEmpty()) {
+            filmDirectorStorage.addDirectorToFilm(film.getId(), added);
+        }
+    }
+
     @Override
     public void removeFilm(Long id) {
         log.debug("Received request to remove film with ID: {}", id);
@@ -301,39 +489,32 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Film> getTopFilms(Long count, Integer genreId, Integer year) {
         StringBuilder query = new StringBuilder(GET_TOP_FILMS);
         log.info("Received request to get top {} films", count);
 
-        if ((genreId != null) || (year != null)) {
-            query.append("""
-                    WHERE""");
-            if (genreId != null) {
-                query.append(" g.id = ? ");
-            }
-            if (year != null) {
-                if (genreId != null) {
-                    query.append("""
-                            AND
-                            """);
-                }
-                query.append(" YEAR(f.releaseDate) = ? ");
-            }
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (genreId != null) {
+            conditions.add("EXISTS (SELECT 1 FROM filmGenre fg WHERE fg.film_id = f.id AND fg.genre_id = ?)");
+            params.add(genreId);
+        }
+        if (year != null) {
+            conditions.add("f.releaseDate >= ? AND f.releaseDate < ?");
+            params.add(Date.valueOf(LocalDate.of(year, 1, 1)));
+            params.add(Date.valueOf(LocalDate.of(year + 1, 1, 1)));
+        }
+        if (!conditions.isEmpty()) {
+            query.append("WHERE ").append(String.join(" AND ", conditions)).append('\n');
         }
         query.append("""
-                GROUP BY f.id, m.id, m.rate, g.id
-                ORDER BY likes_count DESC
+                ORDER BY f.likes_count DESC, f.id
                 LIMIT ?
                 """
         );
-        List<Object> params = new ArrayList<>();
-        if (genreId != null) params.add(genreId);
-        if (year != null) params.add(year);
         params.add(count);
-        List<Film> films = jdbc.query(query.toString(), filmRowMapper, params.toArray())
-                .stream()
-                .distinct()
-                .collect(Collectors.toList());
+        List<Film> films = jdbc.query(query.toString(), filmRowMapper, params.toArray());
         log.debug("Returning top films list with {} entries", films.size());
         getFilmsLikes(films);
         getFilmsGenres(films);
@@ -343,6 +524,7 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Film> getFilmsByTitle(String query) {
         log.debug("Received request to get films where title contains '{}'", query);
         List<Film> films = jdbc.query(GET_FILMS_BY_TITLE, filmRowMapper, query);
@@ -354,6 +536,7 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Film> getFilmsByDirector(String query) {
         log.debug("Received request to get films where director contains '{}'", query);
         List<Film> films = jdbc.query(GET_FILMS_BY_DIRECTOR, filmRowMapper, query);
@@ -365,6 +548,7 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Film> getFilmsByTitleAndDirector(String query) {
         log.debug("Received request to get films where director and title contains '{}'", query);
         List<Film> films = jdbc.query(GET_FILMS_BY_TITLE_AND_DIRECTOR, filmRowMapper, query, query);
@@ -376,6 +560,7 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Film> getCommonFilms(Long userId, Long friendId) {
         log.debug("Received request to get common films between user with ID: {} and user with ID: {}",
                 userId, friendId);
@@ -387,6 +572,7 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Film> getDirectorSortedFilms(Long directorId, String sortType) {
         Integer count = jdbc.queryForObject(CHECK_DIRECTOR_QUERY, Integer.class, directorId);
         if (count == null || count == 0) {
@@ -414,6 +600,7 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<Film> getRecommendations(Long id) {
         log.debug("Received request to retrieve recommendations");
         Map<String, Object> params = new HashMap<>();
@@ -6,11 +6,15 @@ import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.storage.film.FilmDirectorStorage;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Repository
@@ -20,6 +24,15 @@ public class FilmDirectorDbStorage implements FilmDirectorStorage {
             MERGE INTO filmDirector (film_id, director_id)
             VALUES (?, ?)
             """;
+    private static final String DELETE_FILM_DIRECTOR_QUERY = """
+            DELETE FROM filmDirector
+            WHERE film_id = ? AND director_id = ?
+            """;
+    private static final String GET_FILM_DIRECTOR_IDS_QUERY = """
+            SELECT director_id
+            FROM filmDirector
+            WHERE film_id = ?
+            """;
 
     private final JdbcTemplate jdbc;
 
@@ -40,4 +53,48 @@ public class FilmDirectorDbStorage implements FilmDirectorStorage {
         });
         log.debug("Successfully added {} directors to film with ID {}", directorId.size(), filmId);
     }
+
+    @Override
+    public void addDirectorsToFilms(List<Film> films) {
+        List<long[]> links = new ArrayList<>();
+        for (Film film : films) {
+            film.getDirectors().forEach(director -> links.add(new long[]{film.getId(), director.getId()}));
+        }
+        log.debug("Received request to add {} director links to {} films", links.size(), films.size());
+        jdbc.batchUpdate(INSERT_FILM_DIRECTOR_QUERY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, links.get(i)[0]);
+                ps.setLong(2, links.get(i)[1]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return links.size();
+            }
+        });
+    }
+
+    @Override
+    public void removeDirectorsFromFilm(Long filmId, List<Long> directorIds) {
+        log.debug("Received request to remove {} directors from film with ID {}", directorIds.size(), filmId);
+        jdbc.batchUpdate(DELETE_FILM_DIRECTOR_QUERY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, filmId);
+                ps.setLong(2, directorIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return directorIds.size();
+            }
+        });
+        log.debug("Successfully removed {} directors from film with ID {}", directorIds.size(), filmId);
+    }
+
+    @Override
+    public Set<Long> getDirectorIds(Long filmId) {
+        return new HashSet<>(jdbc.queryForList(GET_FILM_DIRECTOR_IDS_QUERY, Long.class, filmId));
+    }
 }
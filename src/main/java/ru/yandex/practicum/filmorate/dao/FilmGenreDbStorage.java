@@ -5,12 +5,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.film.FilmGenreStorage;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Repository
@@ -20,6 +24,15 @@ public class FilmGenreDbStorage implements FilmGenreStorage {
             MERGE INTO filmGenre (film_id, genre_id)
             VALUES (?, ?)
             """;
+    private static final String DELETE_FILM_GENRE_QUERY = """
+            DELETE FROM filmGenre
+            WHERE film_id = ? AND genre_id = ?
+            """;
+    private static final String GET_FILM_GENRE_IDS_QUERY = """
+            SELECT genre_id
+            FROM filmGenre
+            WHERE film_id = ?
+            """;
 
     private final JdbcTemplate jdbc;
 
@@ -40,4 +53,48 @@ public class FilmGenreDbStorage implements FilmGenreStorage {
         });
         log.debug("Successfully added {} genres to film with ID {}", genreIds.size(), filmId);
     }
+
+    @Override
+    public void addGenresToFilms(List<Film> films) {
+        List<long[]> links = new ArrayList<>();
+        for (Film film : films) {
+            film.getGenres().forEach(genre -> links.add(new long[]{film.getId(), genre.getId()}));
+        }
+        log.debug("Received request to add {} genre links to {} films", links.size(), films.size());
+        jdbc.batchUpdate(INSERT_FILM_GENRE_QUERY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, links.get(i)[0]);
+                ps.setInt(2, (int) links.get(i)[1]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return links.size();
+            }
+        });
+    }
+
+    @Override
+    public void removeGenresFromFilm(Long filmId, List<Integer> genreIds) {
+        log.debug("Received request to remove {} genres from film with ID {}", genreIds.size(), filmId);
+        jdbc.batchUpdate(DELETE_FILM_GENRE_QUERY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, filmId);
+                ps.setInt(2, genreIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return genreIds.size();
+            }
+        });
+        log.debug("Successfully removed {} genres from film with ID {}", genreIds.size(), filmId);
+    }
+
+    @Override
+    public Set<Integer> getGenreIds(Long filmId) {
+        return new HashSet<>(jdbc.queryForList(GET_FILM_GENRE_IDS_QUERY, Integer.class, filmId));
+    }
 }
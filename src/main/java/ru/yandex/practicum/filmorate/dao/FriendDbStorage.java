@@ -7,8 +7,6 @@ import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.dao.mappers.UserRowMapper;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.model.enums.EventType;
-import ru.yandex.practicum.filmorate.model.enums.Operation;
 import ru.yandex.practicum.filmorate.storage.user.FriendshipStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
@@ -39,10 +37,13 @@ public class FriendDbStorage implements FriendshipStorage {
             JOIN friends f2 ON u.id = f2.friend_id
             WHERE f.user_id = ? AND f2.user_id = ?
             """;
+    private static final String GET_ALL_FRIEND_IDS = """
+            SELECT user_id, friend_id
+            FROM friends
+            """;
     private final JdbcTemplate jdbc;
     private final UserStorage userStorage;
     private final UserRowMapper userRowMapper;
-    private final EventDbStorage eventDbStorage;
 
     @Override
     public void addFriend(Long userId, Long user2Id) {
@@ -57,7 +58,6 @@ public class FriendDbStorage implements FriendshipStorage {
         user.addFriend(user2Id);
         userStorage.findUser(userId);
         log.info("User {} added user {} to their friends", user.getLogin(), user2.getLogin());
-        eventDbStorage.add(user2Id, userId, EventType.FRIEND, Operation.ADD);
     }
 
     @Override
@@ -71,7 +71,6 @@ public class FriendDbStorage implements FriendshipStorage {
         User user2 = userStorage.findUser(friendId);
         jdbc.update((DELETE_FRIENDSHIP), userId, friendId);
         log.info("User {} removed user {} from their friends", user.getLogin(), user2.getLogin());
-        eventDbStorage.add(friendId, userId, EventType.FRIEND, Operation.REMOVE);
     }
 
     @Override
@@ -111,4 +110,16 @@ public class FriendDbStorage implements FriendshipStorage {
         log.info("Found {} common friends between user {} and user {}", commonFriends.size(), userId, user2Id);
         return commonFriends;
     }
+
+    @Override
+    public Map<Long, Set<Long>> getAllFriendIds() {
+        log.debug("Received request to get friends of all users");
+        return jdbc.query(GET_ALL_FRIEND_IDS, rs -> {
+            Map<Long, Set<Long>> friends = new HashMap<>();
+            while (rs.next()) {
+                friends.computeIfAbsent(rs.getLong("user_id"), v -> new HashSet<>()).add(rs.getLong("friend_id"));
+            }
+            return friends;
+        });
+    }
 }
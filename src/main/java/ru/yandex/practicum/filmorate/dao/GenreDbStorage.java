@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -13,6 +14,7 @@ import ru.yandex.practicum.filmorate.storage.film.GenreStorage;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Repository
@@ -27,7 +29,13 @@ public class GenreDbStorage implements GenreStorage {
             SELECT *
             FROM genres
             """;
+    private static final String GET_GENRES_BY_IDS = """
+            SELECT *
+            FROM genres
+            WHERE id IN (:ids)
+            """;
     private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
     private final GenreRowMapper genreRowMapper;
 
     @Override
@@ -49,4 +57,13 @@ public class GenreDbStorage implements GenreStorage {
         log.debug("Successfully retrieved {} genres", genres.size());
         return genres;
     }
+
+    @Override
+    public Collection<Genre> findGenres(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        log.debug("Received request to find {} genres", ids.size());
+        return namedJdbc.query(GET_GENRES_BY_IDS, Map.of("ids", ids), genreRowMapper);
+    }
 }
@@ -2,67 +2,134 @@ package ru.yandex.practicum.filmorate.dao;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.model.Film;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.model.enums.EventType;
-import ru.yandex.practicum.filmorate.model.enums.Operation;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
-import java.util.Optional;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 @Slf4j
 @RequiredArgsConstructor
 public class LikeDbStorage implements LikeStorage {
     private static final String ADD_LIKE = """
-            MERGE INTO likes(film_id, user_id)
-            VALUES (?, ?)
+            INSERT INTO likes(film_id, user_id)
+            SELECT ?, ?
+            WHERE NOT EXISTS (
+                SELECT 1
+                FROM likes
+                WHERE film_id = ? AND user_id = ?
+            )
             """;
     private static final String DELETE_LIKE = """
             DELETE FROM likes
             WHERE film_id = ? AND user_id = ?
             """;
+    private static final String GET_USER_LIKES = """
+            SELECT film_id
+            FROM likes
+            WHERE user_id = ?
+            """;
+    private static final String GET_ALL_LIKES = """
+            SELECT user_id, film_id
+            FROM likes
+            """;
+    private static final String CHANGE_LIKES_COUNT = """
+            UPDATE films SET likes_count = likes_count + ?
+            WHERE id = ?
+            """;
+    private static final String RECONCILE_LIKES_COUNT = """
+            UPDATE films f
+            SET likes_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)
+            WHERE likes_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.id)
+            """;
     private final JdbcTemplate jdbc;
     private final UserStorage userStorage;
     private final FilmStorage filmStorage;
-    private final EventDbStorage eventDbStorage;
 
     @Override
-    public void addLikeToFilm(Long userId, Long filmId) {
+    @Transactional
+    public boolean addLikeToFilm(Long userId, Long filmId) {
         log.debug("Received request to add like. User ID: {}, Film ID: {}", userId, filmId);
         log.info("User with ID {} is attempting to like film with ID {}", userId, filmId);
         User user = userStorage.findUser(userId);
-        Optional<Film> film = filmStorage.findFilm(filmId);
-
-        if (film.isPresent()) {
-            if (film.get().getLikes().contains(userId)) {
-                log.info("User {} has already liked this film", user.getName());
-            }
+        checkFilmExists(filmId);
 
-            film.get().addLike(userId);
-            jdbc.update(ADD_LIKE, filmId, userId);
-            log.info("User {} liked the film: {}", user.getLogin(), film.get().getName());
-            eventDbStorage.add(filmId, userId, EventType.LIKE, Operation.ADD);
+        boolean added = insertLike(userId, filmId);
+        if (added) {
+            jdbc.update(CHANGE_LIKES_COUNT, 1, filmId);
+            log.info("User {} liked the film with ID {}", user.getLogin(), filmId);
+        } else {
+            log.info("User {} has already liked this film", user.getName());
         }
+        return added;
     }
 
     @Override
-    public void removeLikeToFilm(Long userId, Long filmId) {
+    @Transactional
+    public boolean removeLikeToFilm(Long userId, Long filmId) {
         log.debug("Received request to remove like. User ID: {}, Film ID: {}", userId, filmId);
 
         log.info("User with ID {} is attempting to remove like from film with ID {}", userId, filmId);
         User user = userStorage.findUser(userId);
-        Optional<Film> film = filmStorage.findFilm(filmId);
+        checkFilmExists(filmId);
+
+        boolean removed = jdbc.update(DELETE_LIKE, filmId, userId) > 0;
+        if (removed) {
+            jdbc.update(CHANGE_LIKES_COUNT, -1, filmId);
+        }
+        log.info("User {} remove like from the film with ID {}", user.getLogin(), filmId);
+        return removed;
+    }
+
+    @Override
+    public Set<Long> getUserLikes(Long userId) {
+        log.debug("Received request to get films liked by user with ID {}", userId);
+        return new HashSet<>(jdbc.query(GET_USER_LIKES, (rs, rowNum) -> rs.getLong("film_id"), userId));
+    }
+
+    @Override
+    public Map<Long, Set<Long>> getAllUsersLikes() {
+        log.debug("Received request to get likes of all users");
+        return jdbc.query(GET_ALL_LIKES, rs -> {
+            Map<Long, Set<Long>> likes = new HashMap<>();
+            while (rs.next()) {
+                likes.computeIfAbsent(rs.getLong("user_id"), v -> new HashSet<>()).add(rs.getLong("film_id"));
+            }
+            return likes;
+        });
+    }
+
+    @Override
+    public int reconcileLikesCount() {
+        log.debug("Received request to reconcile films likes count");
+        int repaired = jdbc.update(RECONCILE_LIKES_COUNT);
+        log.debug("Likes count repaired for {} films", repaired);
+        return repaired;
+    }
+
+    private void checkFilmExists(Long filmId) {
+        if (!filmStorage.existsFilm(filmId)) {
+            log.warn("Film with ID {} not found", filmId);
+            throw new NotFoundException("Film with id " + filmId + " not found");
+        }
+    }
 
-        if (film.isPresent()) {
-            film.get().removeLike(userId);
-            jdbc.update(DELETE_LIKE, filmId, userId);
-            log.info("User {} remove like from the film: {}", user.getLogin(), film.get().getName());
-            eventDbStorage.add(filmId, userId, EventType.LIKE, Operation.REMOVE);
+    private boolean insertLike(Long userId, Long filmId) {
+        try {
+            return jdbc.update(ADD_LIKE, filmId, userId, filmId, userId) > 0;
+        } catch (DuplicateKeyException e) {
+            log.debug("Like of user {} to film {} was added concurrently", userId, filmId);
+            return false;
         }
     }
 }
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.dao.mappers.MpaRowMapper;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -12,6 +13,7 @@ import ru.yandex.practicum.filmorate.storage.film.MpaStorage;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Repository
@@ -26,7 +28,13 @@ public class MpaDbStorage implements MpaStorage {
             SELECT *
             FROM mpa
             """;
+    private static final String GET_MPA_BY_IDS = """
+            SELECT *
+            FROM mpa
+            WHERE id IN (:ids)
+            """;
     private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
     private final MpaRowMapper mpaRowMapper;
 
     @Override
@@ -48,4 +56,13 @@ public class MpaDbStorage implements MpaStorage {
         log.debug("Successfully retrieved {} MPAs", mpas.size());
         return mpas;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Collection<Mpa> findMpas(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        log.debug("Received request to find {} MPAs", ids.size());
+        return namedJdbc.query(GET_MPA_BY_IDS, Map.of("ids", ids), mpaRowMapper);
+    }
+}
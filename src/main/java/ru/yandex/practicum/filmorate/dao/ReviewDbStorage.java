@@ -7,6 +7,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dao.mappers.ReviewRowMapper;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Review;
@@ -15,7 +16,6 @@ import ru.yandex.practicum.filmorate.storage.film.ReviewStorage;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -44,42 +44,64 @@ public class ReviewDbStorage implements ReviewStorage {
             SELECT *
             FROM reviews
             WHERE film_id = ?
-            ORDER BY useful DESC
+            ORDER BY useful DESC, id
+            LIMIT ?
+            """;
+    private static final String FIND_REVIEWS_TO_FILM_AFTER = """
+            SELECT *
+            FROM reviews
+            WHERE film_id = ? AND (useful < ? OR (useful = ? AND id > ?))
+            ORDER BY useful DESC, id
             LIMIT ?
             """;
     private static final String GET_ALL_REVIEWS = """
             SELECT *
             FROM reviews
-            ORDER BY useful DESC
+            ORDER BY useful DESC, id
+            LIMIT ?
+            """;
+    private static final String GET_ALL_REVIEWS_AFTER = """
+            SELECT *
+            FROM reviews
+            WHERE useful < ? OR (useful = ? AND id > ?)
+            ORDER BY useful DESC, id
             LIMIT ?
             """;
-    private static final String INSERT_LIKE_DISLIKE = """
-            INSERT INTO review_ratings (user_id, review_id, is_positive)
-            VALUES (?, ?, ?)
+    private static final String UPSERT_LIKE_DISLIKE = """
+            MERGE INTO review_ratings r
+            USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS BOOLEAN)))
+                AS v(user_id, review_id, is_positive)
+            ON r.user_id = v.user_id AND r.review_id = v.review_id
+            WHEN MATCHED AND r.is_positive <> v.is_positive THEN UPDATE SET is_positive = v.is_positive
+            WHEN NOT MATCHED THEN INSERT (user_id, review_id, is_positive)
+                VALUES (v.user_id, v.review_id, v.is_positive)
             """;
     private static final String DELETE_LIKE_DISLIKE = """
             DELETE
             FROM review_ratings WHERE review_id = ?
             AND user_id = ?
             """;
-    private static final String CHECK_USEFUL = """
-            SELECT *
-            FROM review_ratings
-            WHERE review_id = ?
-            AND user_id = ?
+    private static final String CHANGE_USEFUL = """
+            UPDATE reviews
+            SET useful = COALESCE(useful, 0) + ? - COALESCE((
+                SELECT CASE WHEN is_positive THEN 1 ELSE -1 END
+                FROM review_ratings
+                WHERE review_id = ? AND user_id = ?), 0)
+            WHERE id = ?
             """;
-    private static final String UPDATE_REVIEW_RATINGS = """
-            UPDATE review_ratings
-            SET is_positive = ?
-            WHERE review_id = ?
-            AND user_id = ?
+    private static final String GET_MAX_REVIEW_ID = """
+            SELECT COALESCE(MAX(id), 0)
+            FROM reviews
             """;
-    private static final String UPDATE_USEFUL = """
+    private static final String RECONCILE_USEFUL = """
             UPDATE reviews r
-            SET useful = COALESCE((SELECT
-                        SUM(CASE WHEN is_positive THEN 1 ELSE -1 END)
-            FROM review_ratings
-            WHERE review_id = r.id), 0)
+            SET useful = COALESCE((SELECT SUM(CASE WHEN is_positive THEN 1 ELSE -1 END)
+                                   FROM review_ratings
+                                   WHERE review_id = r.id), 0)
+            WHERE r.id BETWEEN ? AND ?
+            AND COALESCE(r.useful, 0) <> COALESCE((SELECT SUM(CASE WHEN is_positive THEN 1 ELSE -1 END)
+                                                   FROM review_ratings
+                                                   WHERE review_id = r.id), 0)
             """;
     private final JdbcTemplate jdbc;
     private final ReviewRowMapper reviewRowMapper;
@@ -149,35 +171,60 @@ public class ReviewDbStorage implements ReviewStorage {
     }
 
     @Override
-    public List<Review> getReviewsToFilm(Long filmId, int count) {
-        log.debug("Received request to get review by film with ID {}", filmId);
-        List<Review> reviews = jdbc.query(FIND_REVIEWS_TO_FILM, reviewRowMapper, filmId, count);
+    public List<Review> getReviewsToFilm(Long filmId, int count, Integer afterUseful, Long afterId) {
+        log.debug("Received request to get review by film with ID {} after useful {} and ID {}",
+                filmId, afterUseful, afterId);
+        List<Review> reviews = afterId == null
+                ? jdbc.query(FIND_REVIEWS_TO_FILM, reviewRowMapper, filmId, count)
+                : jdbc.query(FIND_REVIEWS_TO_FILM_AFTER, reviewRowMapper,
+                        filmId, afterUseful, afterUseful, afterId, count);
         log.debug("Returning list of reviews");
         return reviews;
     }
 
     @Override
-    public List<Review> getAllReviews(int count) {
-        log.debug("Received request to get all reviews");
-        List<Review> reviews = jdbc.query(GET_ALL_REVIEWS, reviewRowMapper, count);
+    public List<Review> getAllReviews(int count, Integer afterUseful, Long afterId) {
+        log.debug("Received request to get all reviews after useful {} and ID {}", afterUseful, afterId);
+        List<Review> reviews = afterId == null
+                ? jdbc.query(GET_ALL_REVIEWS, reviewRowMapper, count)
+                : jdbc.query(GET_ALL_REVIEWS_AFTER, reviewRowMapper, afterUseful, afterUseful, afterId, count);
         log.debug("Returning list of all reviews");
         return reviews;
     }
 
     @Override
-    public void likeDislike(Long reviewId, Long userId, boolean isPositive) {
-        List<Map<String, Object>> likeDislike = jdbc.queryForList(CHECK_USEFUL, reviewId, userId);
-        if (!likeDislike.isEmpty()) {
-            jdbc.update(UPDATE_REVIEW_RATINGS, isPositive, reviewId, userId);
-        } else {
-            jdbc.update(INSERT_LIKE_DISLIKE, userId, reviewId, isPositive);
-        }
-        jdbc.update(UPDATE_USEFUL);
+    @Transactional
+    public boolean likeDislike(Long reviewId, Long userId, boolean isPositive) {
+        log.debug("Received request to rate review with ID {} by user with ID {}", reviewId, userId);
+        changeUseful(reviewId, userId, isPositive ? 1 : -1);
+        return jdbc.update(UPSERT_LIKE_DISLIKE, userId, reviewId, isPositive) > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteLikeDislike(Long reviewId, Long userId, boolean isPositive) {
+        log.debug("Received request to remove rating of review with ID {} by user with ID {}", reviewId, userId);
+        changeUseful(reviewId, userId, 0);
+        return jdbc.update(DELETE_LIKE_DISLIKE, reviewId, userId) > 0;
     }
 
     @Override
-    public void deleteLikeDislike(Long reviewId, Long userId, boolean isPositive) {
-        jdbc.update(DELETE_LIKE_DISLIKE, reviewId, userId);
-        jdbc.update(UPDATE_USEFUL);
+    public long getMaxReviewId() {
+        return Objects.requireNonNull(jdbc.queryForObject(GET_MAX_REVIEW_ID, Long.class));
+    }
+
+    @Override
+    public int reconcileUseful(long fromId, long toId) {
+        log.debug("Received request to reconcile usefulness of reviews with ID from {} to {}", fromId, toId);
+        int repaired = jdbc.update(RECONCILE_USEFUL, fromId, toId);
+        log.debug("Usefulness repaired for {} reviews", repaired);
+        return repaired;
+    }
+
+    private void changeUseful(Long reviewId, Long userId, int vote) {
+        if (jdbc.update(CHANGE_USEFUL, vote, reviewId, userId, reviewId) == 0) {
+            log.warn("Review with ID {} not found", reviewId);
+            throw new NotFoundException("Review with id " + reviewId + " not found");
+        }
     }
-}
\ No newline at end of file
+}
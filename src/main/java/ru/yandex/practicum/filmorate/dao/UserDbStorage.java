@@ -6,15 +6,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dao.mappers.UserRowMapper;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
 
@@ -27,6 +31,19 @@ public class UserDbStorage implements UserStorage {
             SELECT *
             FROM users
             """;
+    private static final String GET_USERS_PAGE = """
+            SELECT *
+            FROM users
+            WHERE id > ?
+            ORDER BY id
+            LIMIT ?
+            """;
+    private static final String GET_USERS_BY_IDS = """
+            SELECT *
+            FROM users
+            WHERE id IN (:userIds)
+            ORDER BY id
+            """;
     private static final String GET_USER_BY_ID = """
             SELECT id, email, login, name, birthday
             FROM users WHERE id = ?
@@ -43,23 +60,51 @@ public class UserDbStorage implements UserStorage {
             DELETE FROM users
             WHERE id = ?
             """;
+    private static final String DECREMENT_LIKED_FILMS_COUNT = """
+            UPDATE films SET likes_count = likes_count - 1
+            WHERE id IN (
+                SELECT film_id
+                FROM likes
+                WHERE user_id = ?
+            )
+            """;
     private static final String GET_USER_FRIENDS = """
             SELECT friend_id
             FROM friends
             WHERE user_id = ?
             """;
+    private static final String GET_ALL_FRIENDS = """
+            SELECT user_id, friend_id
+            FROM friends
+            """;
+    private static final String GET_USERS_FRIENDS = """
+            SELECT user_id, friend_id
+            FROM friends
+            WHERE user_id IN (:userIds)
+            """;
     private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
     private final UserRowMapper userRowMapper;
 
     @Override
     public Collection<User> findAll() {
         log.debug("Received request to find all users");
         List<User> users = jdbc.query(GET_USERS, userRowMapper);
-        users.forEach(this::loadUserFriends);
+        Map<Long, Set<Long>> friends = jdbc.query(GET_ALL_FRIENDS, this::groupFriends);
+        setUsersFriends(users, friends);
         log.debug("Successfully retrieved {} users", users.size());
         return users;
     }
 
+    @Override
+    public Collection<User> findPage(Long afterId, int limit) {
+        log.debug("Received request to find {} users after ID {}", limit, afterId);
+        List<User> users = jdbc.query(GET_USERS_PAGE, userRowMapper, afterId, limit);
+        getUsersFriends(users);
+        log.debug("Successfully retrieved page of {} users", users.size());
+        return users;
+    }
+
     @Override
     public User findUser(Long id) {
         log.debug("Received request to find user with ID {}", id);
@@ -74,6 +119,20 @@ public class UserDbStorage implements UserStorage {
         }
     }
 
+    @Override
+    public List<User> findUsersByIds(List<Long> ids) {
+        log.debug("Received request to find {} users by ID", ids.size());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("userIds", ids);
+        List<User> users = namedJdbc.query(GET_USERS_BY_IDS, params, userRowMapper);
+        getUsersFriends(users);
+        log.debug("Successfully retrieved {} users by ID", users.size());
+        return users;
+    }
+
     @Override
     public User create(User user) {
         log.debug("Received request to create a new user: {}", user);
@@ -122,8 +181,10 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
+    @Transactional
     public void removeUser(Long id) {
         log.debug("Received request to remove user with ID: {}", id);
+        jdbc.update(DECREMENT_LIKED_FILMS_COUNT, id);
         int deletedRows = jdbc.update(DELETE_USER, id);
         if (deletedRows == 0) {
             log.debug("User with ID {} not found", id);
@@ -131,6 +192,30 @@ public class UserDbStorage implements UserStorage {
         }
     }
 
+    private void getUsersFriends(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("userIds", users.stream().map(User::getId).toList());
+        Map<Long, Set<Long>> friends = namedJdbc.query(GET_USERS_FRIENDS, params, this::groupFriends);
+        setUsersFriends(users, friends);
+    }
+
+    private Map<Long, Set<Long>> groupFriends(ResultSet rs) throws SQLException {
+        Map<Long, Set<Long>> map = new HashMap<>();
+        while (rs.next()) {
+            map.computeIfAbsent(rs.getLong("user_id"), v -> new HashSet<>()).add(rs.getLong("friend_id"));
+        }
+        return map;
+    }
+
+    private void setUsersFriends(List<User> users, Map<Long, Set<Long>> friends) {
+        for (User user : users) {
+            user.setFriends(Objects.requireNonNullElseGet(friends.get(user.getId()), HashSet::new));
+        }
+    }
+
     private void loadUserFriends(User user) {
         Set<Long> friendId = new HashSet<>(jdbc.query(GET_USER_FRIENDS,
                 (rs, rowNum) -> rs.getLong("friend_id"), user.getId()));
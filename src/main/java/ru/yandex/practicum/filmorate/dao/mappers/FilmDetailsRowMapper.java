@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.dao.mappers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class FilmDetailsRowMapper implements RowMapper<Film> {
+    private final FilmRowMapper filmRowMapper;
+
+    @Override
+    public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Film film = filmRowMapper.mapRow(rs, rowNum);
+
+        Set<Long> likes = new HashSet<>();
+        for (Object userId : toArray(rs.getArray("like_ids"))) {
+            likes.add(((Number) userId).longValue());
+        }
+        film.setLikes(likes);
+
+        Object[] genreIds = toArray(rs.getArray("genre_ids"));
+        Object[] genreNames = toArray(rs.getArray("genre_names"));
+        LinkedHashSet<Genre> genres = new LinkedHashSet<>();
+        for (int i = 0; i < genreIds.length; i++) {
+            genres.add(new Genre(((Number) genreIds[i]).intValue(), (String) genreNames[i]));
+        }
+        film.setGenres(genres);
+
+        Object[] directorIds = toArray(rs.getArray("director_ids"));
+        Object[] directorNames = toArray(rs.getArray("director_names"));
+        Set<Director> directors = new LinkedHashSet<>();
+        for (int i = 0; i < directorIds.length; i++) {
+            directors.add(new Director(((Number) directorIds[i]).longValue(), (String) directorNames[i]));
+        }
+        film.setDirectors(directors);
+        return film;
+    }
+
+    private Object[] toArray(Array array) throws SQLException {
+        return array == null ? new Object[0] : (Object[]) array.getArray();
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ConnectionPoolStats {
+    String pool;
+    int maximumPoolSize;
+    int active;
+    int idle;
+    int total;
+    int pending;
+    long acquisitions;
+    double averageWaitMillis;
+    double maxWaitMillis;
+    double averageUsageMillis;
+    long timeouts;
+}
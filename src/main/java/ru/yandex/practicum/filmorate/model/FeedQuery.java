@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class FeedQuery {
+    Long since;
+    Long until;
+    Long afterTimestamp;
+    Long afterId;
+    Long lastEventId;
+    Integer limit;
+}
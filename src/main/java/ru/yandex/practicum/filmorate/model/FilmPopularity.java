@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class FilmPopularity {
+    Long filmId;
+    Integer year;
+    @Builder.Default
+    Set<Integer> genreIds = new HashSet<>();
+    long likes;
+}
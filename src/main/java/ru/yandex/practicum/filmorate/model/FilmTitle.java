@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class FilmTitle {
+    Long filmId;
+    String name;
+    @Builder.Default
+    Set<Long> directorIds = new HashSet<>();
+}
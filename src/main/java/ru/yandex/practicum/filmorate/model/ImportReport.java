@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.yandex.practicum.filmorate.model.enums.CatalogEntity;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ImportReport {
+    String importId;
+    CatalogEntity entity;
+    long resumedFromLine;
+    long processedRows;
+    long importedRows;
+    long rejectedRows;
+    List<String> errors;
+    long elapsedMillis;
+    long rowsPerSecond;
+}
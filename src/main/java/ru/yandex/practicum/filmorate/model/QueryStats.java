@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class QueryStats {
+    String statement;
+    long calls;
+    long errors;
+    long rows;
+    double totalMillis;
+    double averageMillis;
+    double p50Millis;
+    double p99Millis;
+    double maxMillis;
+    Map<String, Long> histogram;
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.model.enums;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.Locale;
+
+public enum CatalogEntity {
+    FILMS,
+    USERS,
+    LIKES,
+    FRIENDSHIPS;
+
+    public static CatalogEntity from(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown catalog entity: " + name);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendshipStorage;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdjacencyIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final LikeStorage likeStorage;
+    private final FriendshipStorage friendshipStorage;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Each user keeps a sorted array of adjacent ids, so memory follows the number of edges rather than the largest
+    // id. The reverse maps let a film or user removal touch only the arrays that actually contain it.
+    private Map<Long, int[]> userFilms = new HashMap<>();
+    private Map<Long, int[]> filmUsers = new HashMap<>();
+    private Map<Long, int[]> userFriends = new HashMap<>();
+    private Map<Long, int[]> friendUsers = new HashMap<>();
+
+    @PostConstruct
+    public void reload() {
+        Map<Long, Set<Long>> likes = likeStorage.getAllUsersLikes();
+        Map<Long, Set<Long>> friendships = friendshipStorage.getAllFriendIds();
+        Map<Long, int[]> films = toArrays(likes);
+        Map<Long, int[]> filmLikers = toArrays(invert(likes));
+        Map<Long, int[]> friends = toArrays(friendships);
+        Map<Long, int[]> friendOf = toArrays(invert(friendships));
+        lock.writeLock().lock();
+        try {
+            userFilms = films;
+            filmUsers = filmLikers;
+            userFriends = friends;
+            friendUsers = friendOf;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Adjacency index loaded for {} users with likes and {} users with friends",
+                films.size(), friends.size());
+    }
+
+    public List<Long> getCommonFilmIds(Long userId, Long otherId) {
+        return intersect(userFilms, userId, otherId);
+    }
+
+    public List<Long> getCommonFriendIds(Long userId, Long otherId) {
+        return intersect(userFriends, userId, otherId);
+    }
+
+    public void onLikeAdded(Long userId, Long filmId) {
+        lock.writeLock().lock();
+        try {
+            add(userFilms, userId, filmId);
+            add(filmUsers, filmId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onLikeRemoved(Long userId, Long filmId) {
+        lock.writeLock().lock();
+        try {
+            remove(userFilms, userId, filmId);
+            remove(filmUsers, filmId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onFriendAdded(Long userId, Long friendId) {
+        lock.writeLock().lock();
+        try {
+            add(userFriends, userId, friendId);
+            add(friendUsers, friendId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onFriendRemoved(Long userId, Long friendId) {
+        lock.writeLock().lock();
+        try {
+            remove(userFriends, userId, friendId);
+            remove(friendUsers, friendId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onFilmRemoved(Long filmId) {
+        lock.writeLock().lock();
+        try {
+            unlink(filmUsers, userFilms, filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onUserRemoved(Long userId) {
+        lock.writeLock().lock();
+        try {
+            unlink(userFilms, filmUsers, userId);
+            unlink(userFriends, friendUsers, userId);
+            unlink(friendUsers, userFriends, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Long> intersect(Map<Long, int[]> adjacency, Long userId, Long otherId) {
+        int[] first;
+        int[] second;
+        lock.readLock().lock();
+        try {
+            first = adjacency.getOrDefault(userId, EMPTY);
+            second = adjacency.getOrDefault(otherId, EMPTY);
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Arrays are replaced rather than modified, so the snapshots can be intersected outside the lock.
+        if (first.length > second.length) {
+            int[] swap = first;
+            first = second;
+            second = swap;
+        }
+        List<Long> common = new ArrayList<>();
+        int from = 0;
+        for (int id : first) {
+            int index = Arrays.binarySearch(second, from, second.length, id);
+            if (index >= 0) {
+                common.add((long) id);
+                from = index + 1;
+            } else {
+                from = -index - 1;
+            }
+            if (from == second.length) {
+                break;
+            }
+        }
+        return common;
+    }
+
+    private void unlink(Map<Long, int[]> adjacency, Map<Long, int[]> reverse, Long id) {
+        int[] linked = adjacency.remove(id);
+        if (linked != null) {
+            for (int linkedId : linked) {
+                remove(reverse, (long) linkedId, id);
+            }
+        }
+    }
+
+    private void add(Map<Long, int[]> adjacency, Long key, Long id) {
+        int value = Math.toIntExact(id);
+        int[] ids = adjacency.getOrDefault(key, EMPTY);
+        int index = Arrays.binarySearch(ids, value);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        int[] updated = new int[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = value;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        adjacency.put(key, updated);
+    }
+
+    private void remove(Map<Long, int[]> adjacency, Long key, Long id) {
+        int[] ids = adjacency.get(key);
+        if (ids == null) {
+            return;
+        }
+        int index = Arrays.binarySearch(ids, Math.toIntExact(id));
+        if (index < 0) {
+            return;
+        }
+        if (ids.length == 1) {
+            adjacency.remove(key);
+            return;
+        }
+        int[] updated = new int[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, index);
+        System.arraycopy(ids, index + 1, updated, index, ids.length - index - 1);
+        adjacency.put(key, updated);
+    }
+
+    private Map<Long, Set<Long>> invert(Map<Long, Set<Long>> adjacency) {
+        Map<Long, Set<Long>> inverted = new HashMap<>();
+        adjacency.forEach((key, ids) -> ids.forEach(id -> inverted.computeIfAbsent(id, v -> new HashSet<>()).add(key)));
+        return inverted;
+    }
+
+    private Map<Long, int[]> toArrays(Map<Long, Set<Long>> adjacency) {
+        Map<Long, int[]> arrays = new HashMap<>();
+        adjacency.forEach((key, ids) -> {
+            int[] sorted = ids.stream().mapToInt(Math::toIntExact).sorted().toArray();
+            if (sorted.length > 0) {
+                arrays.put(key, sorted);
+            }
+        });
+        return arrays;
+    }
+}
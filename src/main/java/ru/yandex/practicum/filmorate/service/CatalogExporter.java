@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.CatalogEntity;
+import ru.yandex.practicum.filmorate.storage.catalog.CatalogStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogExporter {
+    private final CatalogStorage catalogStorage;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    @Value("${filmorate.catalog.batch-size:1000}")
+    private int batchSize;
+
+    public long exportNdjson(CatalogEntity entity, OutputStream output) throws IOException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long rows = switch (entity) {
+            case FILMS -> exportFilms(writer);
+            case USERS -> exportUsers(writer);
+            case LIKES -> exportLikes(writer);
+            case FRIENDSHIPS -> exportFriendships(writer);
+        };
+        writer.flush();
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        log.info("Export of {} finished: {} rows, {} rows/s", entity, rows, rows * 1_000_000_000L / elapsed);
+        return rows;
+    }
+
+    private long exportFilms(Writer writer) throws IOException {
+        long rows = 0;
+        long afterId = 0;
+        List<Film> page;
+        do {
+            page = filmStorage.findPage(afterId, batchSize);
+            for (Film film : page) {
+                film.setLikes(null);
+                write(writer, film);
+                afterId = film.getId();
+            }
+            rows += page.size();
+        } while (page.size() == batchSize);
+        return rows;
+    }
+
+    private long exportUsers(Writer writer) throws IOException {
+        long rows = 0;
+        long afterId = 0;
+        List<User> page;
+        do {
+            page = new ArrayList<>(userStorage.findPage(afterId, batchSize));
+            for (User user : page) {
+                user.setFriends(null);
+                write(writer, user);
+                afterId = user.getId();
+            }
+            rows += page.size();
+        } while (page.size() == batchSize);
+        return rows;
+    }
+
+    private long exportLikes(Writer writer) throws IOException {
+        long rows = 0;
+        Like after = new Like(0L, 0L);
+        List<Like> page;
+        do {
+            page = catalogStorage.findLikesPage(after, batchSize);
+            for (Like like : page) {
+                write(writer, like);
+                after = like;
+            }
+            rows += page.size();
+        } while (page.size() == batchSize);
+        return rows;
+    }
+
+    private long exportFriendships(Writer writer) throws IOException {
+        long rows = 0;
+        Friendship after = new Friendship(0L, 0L);
+        List<Friendship> page;
+        do {
+            page = catalogStorage.findFriendshipsPage(after, batchSize);
+            for (Friendship friendship : page) {
+                write(writer, friendship);
+                after = friendship;
+            }
+            rows += page.size();
+        } while (page.size() == batchSize);
+        return rows;
+    }
+
+    private void write(Writer writer, Object row) throws IOException {
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+}
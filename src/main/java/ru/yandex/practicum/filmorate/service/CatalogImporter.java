@@ -0,0 +1,321 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.*;
+import ru.yandex.practicum.filmorate.model.enums.CatalogEntity;
+import ru.yandex.practicum.filmorate.storage.catalog.CatalogStorage;
+import ru.yandex.practicum.filmorate.storage.film.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.film.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.film.MpaStorage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogImporter {
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final CatalogStorage catalogStorage;
+    private final MpaStorage mpaStorage;
+    private final GenreStorage genreStorage;
+    private final DirectorStorage directorStorage;
+    private final LikeStorage likeStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final FilmLeaderboard filmLeaderboard;
+    private final FilmRecommender filmRecommender;
+    private final AdjacencyIndex adjacencyIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final FriendsFeed friendsFeed;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Value("${filmorate.catalog.batch-size:1000}")
+    private int batchSize;
+    @Value("${filmorate.catalog.parallelism:4}")
+    private int parallelism;
+
+    public ImportReport importNdjson(CatalogEntity entity, String importId, InputStream input) throws IOException {
+        String id = importId == null ? UUID.randomUUID().toString() : importId;
+        if (id.isBlank() || id.length() > 64) {
+            throw new ValidationException("Import id must be 1 to 64 characters long");
+        }
+        long checkpoint = catalogStorage.findCheckpoint(id, entity).orElse(0L);
+        Progress progress = new Progress(id);
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("catalog-import-", 0).daemon().factory())) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            Deque<Future<ParsedBatch>> pending = new ArrayDeque<>();
+            List<RawLine> lines = new ArrayList<>(batchSize);
+            long lineNo = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo <= checkpoint || line.isBlank()) {
+                    continue;
+                }
+                lines.add(new RawLine(lineNo, line));
+                if (lines.size() == batchSize) {
+                    submit(workers, pending, entity, lines, lineNo);
+                    lines = new ArrayList<>(batchSize);
+                    while (pending.size() > parallelism * 2) {
+                        write(progress, await(pending.poll()));
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                submit(workers, pending, entity, lines, lineNo);
+            }
+            while (!pending.isEmpty()) {
+                write(progress, await(pending.poll()));
+            }
+        }
+        afterImport(entity);
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        ImportReport report = ImportReport.builder()
+                .importId(id)
+                .entity(entity)
+                .resumedFromLine(checkpoint)
+                .processedRows(progress.processed)
+                .importedRows(progress.imported)
+                .rejectedRows(progress.rejected)
+                .errors(progress.errors)
+                .elapsedMillis(elapsed / 1_000_000)
+                .rowsPerSecond(progress.processed * 1_000_000_000L / elapsed)
+                .build();
+        log.info("Import {} of {} finished: {} rows imported, {} rejected, {} rows/s", id, entity,
+                report.getImportedRows(), report.getRejectedRows(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private void submit(ExecutorService workers, Deque<Future<ParsedBatch>> pending, CatalogEntity entity,
+                        List<RawLine> lines, long lastLine) {
+        pending.add(workers.submit(() -> parse(entity, lines, lastLine)));
+    }
+
+    private ParsedBatch await(Future<ParsedBatch> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ParsedBatch parse(CatalogEntity entity, List<RawLine> lines, long lastLine) {
+        ParsedBatch batch = new ParsedBatch(entity, lastLine);
+        for (RawLine line : lines) {
+            try {
+                Object row = switch (entity) {
+                    case FILMS -> parseFilm(line.text());
+                    case USERS -> parseUser(line.text());
+                    case LIKES -> parseLike(line.text());
+                    case FRIENDSHIPS -> parseFriendship(line.text());
+                };
+                batch.rows.add(row);
+                batch.lines.add(line.number());
+            } catch (IOException | RuntimeException e) {
+                batch.errors.add("line " + line.number() + ": " + e.getMessage());
+            }
+        }
+        return batch;
+    }
+
+    private Film parseFilm(String text) throws IOException {
+        Film film = objectMapper.readValue(text, Film.class);
+        if (film.getId() == null) {
+            throw new ValidationException("Film id must be specified");
+        }
+        if (film.getMpa() == null) {
+            throw new ValidationException("Film MPA must be specified");
+        }
+        if (film.getGenres() == null) {
+            film.setGenres(new LinkedHashSet<>());
+        }
+        if (film.getDirectors() == null) {
+            film.setDirectors(new LinkedHashSet<>());
+        }
+        validate(film);
+        mpaStorage.findMpa(film.getMpa().getId());
+        film.getGenres().forEach(genre -> genreStorage.findGenre(genre.getId()));
+        film.getDirectors().forEach(director -> directorStorage.findDirector(director.getId()));
+        return film;
+    }
+
+    private User parseUser(String text) throws IOException {
+        User user = objectMapper.readValue(text, User.class);
+        if (user.getId() == null) {
+            throw new ValidationException("User id must be specified");
+        }
+        validate(user);
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+        }
+        return user;
+    }
+
+    private Like parseLike(String text) throws IOException {
+        Like like = objectMapper.readValue(text, Like.class);
+        if (like.getFilmId() == null || like.getUserId() == null) {
+            throw new ValidationException("Like must have filmId and userId");
+        }
+        return like;
+    }
+
+    private Friendship parseFriendship(String text) throws IOException {
+        Friendship friendship = objectMapper.readValue(text, Friendship.class);
+        if (friendship.getUserId() == null || friendship.getFriendId() == null) {
+            throw new ValidationException("Friendship must have userId and friendId");
+        }
+        if (friendship.getUserId().equals(friendship.getFriendId())) {
+            throw new ValidationException("User cannot be a friend of himself");
+        }
+        return friendship;
+    }
+
+    private void validate(Object row) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" ")));
+        }
+    }
+
+    private void write(Progress progress, ParsedBatch batch) {
+        progress.processed += batch.rows.size() + batch.errors.size();
+        progress.reject(batch.errors);
+        if (!batch.rows.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    store(progress, batch.entity, batch.rows, batch.lines);
+                    catalogStorage.saveCheckpoint(progress.importId, batch.entity, batch.lastLine);
+                });
+                log.debug("Imported batch of {} {} up to line {}", batch.rows.size(), batch.entity, batch.lastLine);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Batch of {} {} up to line {} failed, importing rows one by one: {}",
+                        batch.rows.size(), batch.entity, batch.lastLine, e.getMessage());
+            }
+            for (int i = 0; i < batch.rows.size(); i++) {
+                List<Object> row = List.of(batch.rows.get(i));
+                List<Long> line = List.of(batch.lines.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> store(progress, batch.entity, row, line));
+                } catch (RuntimeException e) {
+                    progress.reject(List.of("line " + line.getFirst() + ": " + e.getMessage()));
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                catalogStorage.saveCheckpoint(progress.importId, batch.entity, batch.lastLine));
+    }
+
+    private void store(Progress progress, CatalogEntity entity, List<Object> rows, List<Long> lines) {
+        int[] counts = switch (entity) {
+            case FILMS -> {
+                catalogStorage.mergeFilms(rows.stream().map(Film.class::cast).toList());
+                yield null;
+            }
+            case USERS -> {
+                catalogStorage.mergeUsers(rows.stream().map(User.class::cast).toList());
+                yield null;
+            }
+            case LIKES -> catalogStorage.mergeLikes(rows.stream().map(Like.class::cast).toList());
+            case FRIENDSHIPS -> catalogStorage.mergeFriendships(rows.stream().map(Friendship.class::cast).toList());
+        };
+        if (counts == null) {
+            progress.imported += rows.size();
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missing.add("line " + lines.get(i) + ": referenced film or user not found");
+            }
+        }
+        progress.imported += rows.size() - missing.size();
+        progress.reject(missing);
+    }
+
+    private void afterImport(CatalogEntity entity) {
+        if (entity == CatalogEntity.FILMS) {
+            catalogStorage.restartFilmIds();
+        } else if (entity == CatalogEntity.USERS) {
+            catalogStorage.restartUserIds();
+        } else if (entity == CatalogEntity.LIKES) {
+            likeStorage.reconcileLikesCount();
+        }
+        filmLeaderboard.reload();
+        filmRecommender.reload();
+        adjacencyIndex.reload();
+        filmSearchIndex.reload();
+        friendsFeed.reload();
+    }
+
+    private record RawLine(long number, String text) {
+    }
+
+    private static class ParsedBatch {
+        private final CatalogEntity entity;
+        private final long lastLine;
+        private final List<Object> rows = new ArrayList<>();
+        private final List<Long> lines = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+
+        ParsedBatch(CatalogEntity entity, long lastLine) {
+            this.entity = entity;
+            this.lastLine = lastLine;
+        }
+    }
+
+    private static class Progress {
+        private final String importId;
+        private final List<String> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long rejected;
+
+        Progress(String importId) {
+            this.importId = importId;
+        }
+
+        void reject(List<String> rowErrors) {
+            rejected += rowErrors.size();
+            for (String error : rowErrors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                }
+            }
+        }
+    }
+}
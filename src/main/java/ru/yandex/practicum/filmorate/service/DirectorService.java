@@ -14,6 +14,7 @@ import java.util.Collection;
 @RequiredArgsConstructor
 public class DirectorService {
     private final DirectorStorage directorStorage;
+    private final FilmSearchIndex filmSearchIndex;
 
     public Collection<Director> findAll() {
         return directorStorage.findAll();
@@ -25,14 +26,19 @@ public class DirectorService {
     }
 
     public Director create(Director director) {
-        return directorStorage.create(director);
+        Director created = directorStorage.create(director);
+        filmSearchIndex.onDirectorSaved(created);
+        return created;
     }
 
     public Director updateDirector(Director director) {
-        return directorStorage.updateDirector(director);
+        Director updated = directorStorage.updateDirector(director);
+        filmSearchIndex.onDirectorSaved(updated);
+        return updated;
     }
 
     public void removeDirector(Long id) {
         directorStorage.removeDirector(id);
+        filmSearchIndex.onDirectorRemoved(id);
     }
 }
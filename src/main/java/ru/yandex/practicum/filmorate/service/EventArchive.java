@@ -0,0 +1,268 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.FeedQuery;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.model.enums.Operation;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Component
+public class EventArchive {
+    private static final String PARTITION_PREFIX = "users-";
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".ndjson.gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Comparator<Event> BY_TIME = Comparator.comparingLong(Event::getTimestamp)
+            .thenComparing(Event::getId);
+    private static final Comparator<Event> BY_ID = Comparator.comparing(Event::getId);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, NavigableSet<LocalDate>> partitionDays = new ConcurrentHashMap<>();
+    private final Map<Path, Long> segmentMaxIds = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${filmorate.events.retention.directory:./db/events-archive}")
+    private Path directory;
+    @Value("${filmorate.events.retention.users-per-segment:100}")
+    private int usersPerSegment;
+
+    public void append(List<Event> events) throws IOException {
+        lock.writeLock().lock();
+        try {
+            appendSegments(events);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Event> find(Long userId, FeedQuery feedQuery) {
+        lock.readLock().lock();
+        try {
+            return findInSegments(userId, feedQuery);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Event> merge(List<Event> archived, Collection<Event> hot, FeedQuery feedQuery) {
+        if (archived.isEmpty()) {
+            return new ArrayList<>(hot);
+        }
+        Map<Long, Event> events = new HashMap<>();
+        archived.forEach(event -> events.put(event.getId(), event));
+        hot.forEach(event -> events.put(event.getId(), event));
+        List<Event> merged = new ArrayList<>(events.values());
+        merged.sort(comparator(feedQuery));
+        return limit(merged, feedQuery);
+    }
+
+    private void appendSegments(List<Event> events) throws IOException {
+        Map<Long, Map<LocalDate, List<Event>>> partitions = events.stream()
+                .collect(Collectors.groupingBy(event -> partition(event.getUserId()), TreeMap::new,
+                        Collectors.groupingBy(event -> bucket(event.getTimestamp()), TreeMap::new,
+                                Collectors.toList())));
+        for (Map.Entry<Long, Map<LocalDate, List<Event>>> partition : partitions.entrySet()) {
+            Files.createDirectories(partitionDirectory(partition.getKey()));
+            for (Map.Entry<LocalDate, List<Event>> bucket : partition.getValue().entrySet()) {
+                Path segment = segment(partition.getKey(), bucket.getKey());
+                writeSegment(segment, bucket.getValue());
+                long maxId = bucket.getValue().stream().mapToLong(Event::getId).max().orElse(0);
+                segmentMaxIds.merge(segment, maxId, Math::max);
+                days(partition.getKey()).add(bucket.getKey());
+            }
+        }
+    }
+
+    // The day is rewritten into a temporary file and renamed over the segment, so a crash mid-write leaves either
+    // the previous segment or the new one. Rewriting also drops a damaged tail left by an older, in-place append.
+    private void writeSegment(Path segment, List<Event> events) throws IOException {
+        List<Event> segmentEvents = Files.exists(segment) ? read(segment) : new ArrayList<>();
+        segmentEvents.addAll(events);
+        Path temp = segment.resolveSibling(segment.getFileName() + TEMP_SUFFIX);
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            GZIPOutputStream gzip = new GZIPOutputStream(file);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+            for (Event event : segmentEvents) {
+                writer.write(objectMapper.writeValueAsString(ArchivedEvent.of(event)));
+                writer.write('\n');
+            }
+            writer.flush();
+            gzip.finish();
+            file.getChannel().force(true);
+        }
+        Files.move(temp, segment, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel parent = FileChannel.open(segment.getParent(), StandardOpenOption.READ)) {
+            parent.force(true);
+        } catch (IOException e) {
+            log.debug("Could not sync archive directory {}: {}", segment.getParent(), e.getMessage());
+        }
+    }
+
+    private List<Event> findInSegments(Long userId, FeedQuery feedQuery) {
+        long partition = partition(userId);
+        NavigableSet<LocalDate> days = days(partition);
+        if (days.isEmpty()) {
+            return List.of();
+        }
+        Predicate<Event> filter = filter(feedQuery);
+        Set<Long> seen = new HashSet<>();
+        List<Event> events = new ArrayList<>();
+        for (LocalDate bucket : buckets(days, feedQuery)) {
+            Path segment = segment(partition, bucket);
+            if (feedQuery.getLastEventId() != null
+                    && segmentMaxIds.getOrDefault(segment, Long.MAX_VALUE) <= feedQuery.getLastEventId()) {
+                continue;
+            }
+            for (Event event : read(segment)) {
+                if (event.getUserId().equals(userId) && filter.test(event) && seen.add(event.getId())) {
+                    events.add(event);
+                }
+            }
+            // Time-ordered feeds take the oldest events first, so later days can't displace what is collected.
+            if (feedQuery.getLastEventId() == null && feedQuery.getLimit() != null
+                    && events.size() >= feedQuery.getLimit()) {
+                break;
+            }
+        }
+        events.sort(comparator(feedQuery));
+        return limit(events, feedQuery);
+    }
+
+    private NavigableSet<LocalDate> buckets(NavigableSet<LocalDate> days, FeedQuery feedQuery) {
+        LocalDate from = Stream.of(feedQuery.getSince(), feedQuery.getAfterTimestamp())
+                .filter(Objects::nonNull)
+                .max(Long::compare)
+                .map(this::bucket)
+                .orElse(LocalDate.MIN);
+        LocalDate to = feedQuery.getUntil() == null ? LocalDate.MAX : bucket(feedQuery.getUntil());
+        return from.isAfter(to) ? Collections.emptyNavigableSet() : days.subSet(from, true, to, true);
+    }
+
+    private NavigableSet<LocalDate> days(long partition) {
+        return partitionDays.computeIfAbsent(partition, this::listDays);
+    }
+
+    private NavigableSet<LocalDate> listDays(long partition) {
+        NavigableSet<LocalDate> days = new ConcurrentSkipListSet<>();
+        Path partitionDirectory = partitionDirectory(partition);
+        if (!Files.isDirectory(partitionDirectory)) {
+            return days;
+        }
+        try (Stream<Path> files = Files.list(partitionDirectory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> LocalDate.parse(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .forEach(days::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return days;
+    }
+
+    private List<Event> read(Path segment) {
+        List<Event> events = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(segment)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                events.add(objectMapper.readValue(line, ArchivedEvent.class).toEvent());
+            }
+        } catch (IOException e) {
+            // Keep what was read before the damage; the next append to this day rewrites the segment without it.
+            log.warn("Archive segment {} is damaged after {} events, skipping the rest: {}", segment, events.size(),
+                    e.getMessage());
+        }
+        segmentMaxIds.put(segment, events.stream().mapToLong(Event::getId).max().orElse(0));
+        return events;
+    }
+
+    private Predicate<Event> filter(FeedQuery feedQuery) {
+        Predicate<Event> filter = event -> true;
+        if (feedQuery.getSince() != null) {
+            filter = filter.and(event -> event.getTimestamp() >= feedQuery.getSince());
+        }
+        if (feedQuery.getUntil() != null) {
+            filter = filter.and(event -> event.getTimestamp() < feedQuery.getUntil());
+        }
+        if (feedQuery.getLastEventId() != null) {
+            filter = filter.and(event -> event.getId() > feedQuery.getLastEventId());
+        } else if (feedQuery.getAfterId() != null) {
+            filter = filter.and(event -> event.getTimestamp() > feedQuery.getAfterTimestamp()
+                    || (event.getTimestamp() == feedQuery.getAfterTimestamp()
+                    && event.getId() > feedQuery.getAfterId()));
+        }
+        return filter;
+    }
+
+    private Comparator<Event> comparator(FeedQuery feedQuery) {
+        return feedQuery.getLastEventId() == null ? BY_TIME : BY_ID;
+    }
+
+    private List<Event> limit(List<Event> events, FeedQuery feedQuery) {
+        if (feedQuery.getLimit() == null || events.size() <= feedQuery.getLimit()) {
+            return events;
+        }
+        return new ArrayList<>(events.subList(0, feedQuery.getLimit()));
+    }
+
+    private LocalDate bucket(long timestamp) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC);
+    }
+
+    private long partition(Long userId) {
+        return userId / usersPerSegment;
+    }
+
+    private Path partitionDirectory(long partition) {
+        return directory.resolve(PARTITION_PREFIX + partition);
+    }
+
+    private Path segment(long partition, LocalDate bucket) {
+        return partitionDirectory(partition).resolve(SEGMENT_PREFIX + bucket + SEGMENT_SUFFIX);
+    }
+
+    private record ArchivedEvent(long id, long userId, String eventType, String operation, long entityId,
+                                 long timestamp) {
+        static ArchivedEvent of(Event event) {
+            return new ArchivedEvent(event.getId(), event.getUserId(), event.getEventType().name(),
+                    event.getOperation().name(), event.getEntityId(), event.getTimestamp());
+        }
+
+        Event toEvent() {
+            return Event.builder()
+                    .id(id)
+                    .userId(userId)
+                    .eventType(EventType.valueOf(eventType))
+                    .operation(Operation.valueOf(operation))
+                    .entityId(entityId)
+                    .timestamp(timestamp)
+                    .build();
+        }
+    }
+}
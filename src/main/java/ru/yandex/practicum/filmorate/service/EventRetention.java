@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.storage.event.EventStorage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventRetention {
+    private final EventStorage eventStorage;
+    private final EventArchive eventArchive;
+
+    @Value("${filmorate.events.retention.enabled:false}")
+    private boolean enabled;
+    @Value("${filmorate.events.retention.horizon:P90D}")
+    private Duration horizon;
+    @Value("${filmorate.events.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${filmorate.events.retention.interval:PT1H}",
+            fixedDelayString = "${filmorate.events.retention.interval:PT1H}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive(System.currentTimeMillis() - horizon.toMillis());
+        }
+    }
+
+    public int archive(long createdBefore) {
+        int archived = 0;
+        List<Event> batch;
+        do {
+            batch = eventStorage.findCreatedBefore(createdBefore, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                eventArchive.append(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to archive events", e);
+            }
+            eventStorage.removeAll(batch.stream().map(Event::getId).toList());
+            archived += batch.size();
+        } while (batch.size() == batchSize);
+        if (archived > 0) {
+            log.info("Archived {} events created before {}", archived, createdBefore);
+        }
+        return archived;
+    }
+}
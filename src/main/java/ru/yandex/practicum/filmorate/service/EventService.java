@@ -3,7 +3,10 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.FeedQuery;
 import ru.yandex.practicum.filmorate.model.enums.EventType;
 import ru.yandex.practicum.filmorate.model.enums.Operation;
 import ru.yandex.practicum.filmorate.storage.event.EventStorage;
@@ -15,11 +18,23 @@ import java.util.Collection;
 @Service
 @RequiredArgsConstructor
 public class EventService {
+    private static final int DEFAULT_FRIENDS_FEED_SIZE = 50;
+
     private final EventStorage eventStorage;
     private final UserStorage userStorage;
+    private final EventWriter eventWriter;
+    private final FriendsFeed friendsFeed;
+    private final FeedStreamer feedStreamer;
+    private final EventArchive eventArchive;
 
-    public boolean add(Long entityId, Long userId, EventType eventType, Operation operation) {
-        return eventStorage.add(entityId, userId, eventType, operation);
+    public void add(Long entityId, Long userId, EventType eventType, Operation operation) {
+        eventWriter.append(Event.builder()
+                .entityId(entityId)
+                .userId(userId)
+                .eventType(eventType)
+                .operation(operation)
+                .timestamp(System.currentTimeMillis())
+                .build());
     }
 
     public boolean remove(long id) {
@@ -32,7 +47,30 @@ public class EventService {
 
     public Collection<Event> findByUserId(Long id) {
         userStorage.findUser(id);
-        return eventStorage.findByUserId(id);
+        FeedQuery feedQuery = FeedQuery.builder().build();
+        return eventArchive.merge(eventArchive.find(id, feedQuery), eventStorage.findByUserId(id), feedQuery);
+    }
+
+    public Collection<Event> findByUserId(Long id, FeedQuery feedQuery) {
+        if ((feedQuery.getAfterTimestamp() == null) != (feedQuery.getAfterId() == null)) {
+            throw new ValidationException("afterTimestamp and afterId must be specified together");
+        }
+        if (feedQuery.getLastEventId() != null && feedQuery.getAfterId() != null) {
+            throw new ValidationException("lastEventId can't be combined with afterTimestamp and afterId");
+        }
+        userStorage.findUser(id);
+        return eventArchive.merge(eventArchive.find(id, feedQuery), eventStorage.findByUserId(id, feedQuery),
+                feedQuery);
+    }
+
+    public Collection<Event> getFriendsFeed(Long id, Integer limit) {
+        userStorage.findUser(id);
+        return friendsFeed.getFeed(id, limit == null ? DEFAULT_FRIENDS_FEED_SIZE : limit);
+    }
+
+    public SseEmitter streamFeed(Long id, Long lastEventId) {
+        userStorage.findUser(id);
+        return feedStreamer.subscribe(id, lastEventId);
     }
 
     public Event find(long id) {
@@ -0,0 +1,261 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventsPersisted;
+import ru.yandex.practicum.filmorate.model.enums.EventWriteMode;
+import ru.yandex.practicum.filmorate.storage.event.EventStorage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventWriter {
+    private final EventStorage eventStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentLinkedQueue<PendingEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder writtenEvents = new LongAdder();
+    private final LongAdder rejectedEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile boolean running;
+    private Thread writer;
+
+    @Value("${filmorate.events.write-mode:GROUP_COMMIT}")
+    private EventWriteMode mode;
+    @Value("${filmorate.events.queue-capacity:10000}")
+    private int queueCapacity;
+    @Value("${filmorate.events.batch-size:256}")
+    private int batchSize;
+    @Value("${filmorate.events.flush-interval:10ms}")
+    private Duration flushInterval;
+    @Value("${filmorate.events.ack-timeout:5s}")
+    private Duration ackTimeout;
+
+    @PostConstruct
+    public void start() {
+        if (mode == EventWriteMode.SYNC) {
+            log.info("Event writer started in SYNC mode");
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("event-writer").daemon().start(this::writeLoop);
+        log.info("Event writer started in {} mode, queue capacity {}, batch size {}",
+                mode, queueCapacity, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+        while (!queue.isEmpty()) {
+            drain();
+        }
+        log.info("Event writer stopped, {} events written", writtenEvents.sum());
+    }
+
+    public void append(Event event) {
+        if (!running) {
+            writeDirect(event);
+            return;
+        }
+        CompletableFuture<Void> ack = mode == EventWriteMode.GROUP_COMMIT ? new CompletableFuture<>() : null;
+        PendingEvent pending = new PendingEvent(event, ack);
+        if (!offer(pending)) {
+            rejectedEvents.increment();
+            log.warn("Event queue is full, writing event of user {} on the caller thread", event.getUserId());
+            writeDirect(event);
+            return;
+        }
+        if (!running) {
+            // stop() may have drained the queue between the running check and the offer above.
+            while (!queue.isEmpty()) {
+                drain();
+            }
+        }
+        if (ack == null) {
+            if (queueDepth.get() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        LockSupport.unpark(writer);
+        await(pending, ack);
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getWrittenEvents() {
+        return writtenEvents.sum();
+    }
+
+    public long getRejectedEvents() {
+        return rejectedEvents.sum();
+    }
+
+    public long getFailedEvents() {
+        return failedEvents.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    public long getFlushNanos() {
+        return flushNanos.sum();
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos.get();
+    }
+
+    private void await(PendingEvent pending, CompletableFuture<Void> ack) {
+        try {
+            ack.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw notCommitted(pending, "was not committed within " + ackTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw notCommitted(pending, "was interrupted before commit");
+        }
+    }
+
+    private IllegalStateException notCommitted(PendingEvent pending, String reason) {
+        // An event still in the queue is withdrawn so the caller's failure is final; one the writer has already
+        // taken may still be stored, and the message says so.
+        boolean withdrawn = queue.remove(pending);
+        if (withdrawn) {
+            queueDepth.decrementAndGet();
+        }
+        String message = "Event of user " + pending.event().getUserId() + " " + reason
+                + (withdrawn ? ", it was discarded" : ", it may still be written");
+        log.warn(message);
+        return new IllegalStateException(message);
+    }
+
+    private boolean offer(PendingEvent event) {
+        if (queueDepth.incrementAndGet() > queueCapacity) {
+            queueDepth.decrementAndGet();
+            return false;
+        }
+        queue.offer(event);
+        return true;
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            int depth = queueDepth.get();
+            if (running && (depth == 0 || (mode == EventWriteMode.ASYNC && depth < batchSize))) {
+                LockSupport.parkNanos(this, flushInterval.toNanos());
+            }
+            drain();
+        }
+    }
+
+    private void drain() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        PendingEvent event;
+        while (batch.size() < batchSize && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) {
+            queueDepth.addAndGet(-batch.size());
+            write(batch);
+        }
+    }
+
+    private void writeDirect(Event event) {
+        long start = System.nanoTime();
+        eventStorage.addAll(List.of(event));
+        writtenEvents.increment();
+        recordFlush(System.nanoTime() - start);
+        publish(List.of(event));
+    }
+
+    private void write(List<PendingEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            List<Event> events = batch.stream().map(PendingEvent::event).toList();
+            eventStorage.addAll(events);
+            writtenEvents.add(batch.size());
+            batch.forEach(PendingEvent::complete);
+            publish(events);
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} events failed, writing them one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeOne);
+        }
+        long elapsed = System.nanoTime() - start;
+        recordFlush(elapsed);
+        log.debug("Flushed {} events in {} us", batch.size(), elapsed / 1000);
+    }
+
+    private void publish(List<Event> events) {
+        try {
+            eventPublisher.publishEvent(new EventsPersisted(events));
+        } catch (RuntimeException e) {
+            log.error("Failed to publish {} persisted events", events.size(), e);
+        }
+    }
+
+    private void recordFlush(long elapsed) {
+        flushes.increment();
+        flushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    private void writeOne(PendingEvent pending) {
+        try {
+            eventStorage.addAll(List.of(pending.event()));
+            writtenEvents.increment();
+            pending.complete();
+            publish(List.of(pending.event()));
+        } catch (RuntimeException e) {
+            failedEvents.increment();
+            log.error("Failed to write event {}", pending.event(), e);
+            pending.fail(e);
+        }
+    }
+
+    private record PendingEvent(Event event, CompletableFuture<Void> ack) {
+        void complete() {
+            if (ack != null) {
+                ack.complete(null);
+            }
+        }
+
+        void fail(RuntimeException e) {
+            if (ack != null) {
+                ack.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventsPersisted;
+import ru.yandex.practicum.filmorate.model.FeedQuery;
+import ru.yandex.practicum.filmorate.storage.event.EventStorage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedStreamer {
+    private final EventStorage eventStorage;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${filmorate.feed-stream.timeout:PT30M}")
+    private Duration timeout;
+    @Value("${filmorate.feed-stream.buffer-size:256}")
+    private int bufferSize;
+    @Value("${filmorate.feed-stream.replay-limit:1000}")
+    private int replayLimit;
+
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        subscribe(userId, lastEventId, emitter);
+        return emitter;
+    }
+
+    public void subscribe(Long userId, Long lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscriber.lastSentId = lastEventId == null ? 0 : lastEventId;
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(userId, v -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.scheduled.set(true);
+        dispatcher.execute(() -> {
+            if (lastEventId != null) {
+                replay(subscriber);
+            }
+            drain(subscriber);
+        });
+        log.debug("User {} subscribed to the feed stream from event {}", userId, lastEventId);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @EventListener
+    public void onEventsPersisted(EventsPersisted persisted) {
+        for (Event event : persisted.getEvents()) {
+            for (Subscriber subscriber : subscribers.getOrDefault(event.getUserId(), Set.of())) {
+                if (!subscriber.queue.offer(event)) {
+                    log.warn("Feed stream of user {} is too slow, closing it", subscriber.userId);
+                    unsubscribe(subscriber);
+                    subscriber.emitter.complete();
+                    continue;
+                }
+                if (subscriber.scheduled.compareAndSet(false, true)) {
+                    dispatcher.execute(() -> drain(subscriber));
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.values().forEach(users -> users.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+        dispatcher.shutdown();
+    }
+
+    private void replay(Subscriber subscriber) {
+        List<Event> events = eventStorage.findByUserId(subscriber.userId, FeedQuery.builder()
+                .lastEventId(subscriber.lastSentId)
+                .limit(replayLimit)
+                .build());
+        for (Event event : events) {
+            if (!send(subscriber, event)) {
+                return;
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Event event;
+            while ((event = subscriber.queue.poll()) != null) {
+                if (!send(subscriber, event)) {
+                    return;
+                }
+            }
+            subscriber.scheduled.set(false);
+        } while (!subscriber.queue.isEmpty() && subscriber.scheduled.compareAndSet(false, true));
+    }
+
+    private boolean send(Subscriber subscriber, Event event) {
+        if (event.getId() <= subscriber.lastSentId) {
+            return true;
+        }
+        try {
+            subscriber.emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getId()))
+                    .name("event")
+                    .data(event, MediaType.APPLICATION_JSON));
+            subscriber.lastSentId = event.getId();
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Feed stream of user {} is closed: {}", subscriber.userId, e.getMessage());
+            unsubscribe(subscriber);
+            return false;
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        Set<Subscriber> users = subscribers.get(subscriber.userId);
+        if (users != null) {
+            users.remove(subscriber);
+        }
+    }
+
+    private static class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long lastSentId;
+
+        Subscriber(Long userId, SseEmitter emitter, BlockingQueue<Event> queue) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPopularity;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmLeaderboard {
+    private static final Comparator<Rank> BY_LIKES_DESC = Comparator.comparingLong(Rank::likes).reversed()
+            .thenComparingLong(Rank::filmId);
+
+    private final FilmStorage filmStorage;
+    // Readers take no lock: reload() swaps in fully built maps, and a rank change adds the new rank before removing
+    // the old one, so a film is briefly listed twice (de-duplicated on read) but never missing.
+    private Map<Long, FilmPopularity> films = new HashMap<>();
+    private volatile Map<BoardKey, ConcurrentSkipListSet<Rank>> boards = new ConcurrentHashMap<>();
+    private final Map<Long, Long> pendingLikes = new HashMap<>();
+
+    @PostConstruct
+    public synchronized void reload() {
+        Map<Long, FilmPopularity> loadedFilms = new HashMap<>();
+        Map<BoardKey, ConcurrentSkipListSet<Rank>> loadedBoards = new ConcurrentHashMap<>();
+        filmStorage.getFilmsPopularity().forEach(film -> {
+            loadedFilms.put(film.getFilmId(), film);
+            addRank(loadedBoards, film);
+        });
+        films = loadedFilms;
+        boards = loadedBoards;
+        pendingLikes.clear();
+        log.info("Film leaderboard loaded with {} films", loadedFilms.size());
+    }
+
+    public List<Long> getTopFilmIds(long count, Integer genreId, Integer year) {
+        ConcurrentSkipListSet<Rank> board = boards.get(new BoardKey(genreId, year));
+        if (board == null) {
+            return List.of();
+        }
+        return board.stream()
+                .map(Rank::filmId)
+                .distinct()
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    public long getLikes(Long filmId) {
+        FilmPopularity film;
+        synchronized (this) {
+            film = films.get(filmId);
+        }
+        return film == null ? 0 : film.getLikes();
+    }
+
+    public synchronized void onFilmSaved(Film film) {
+        FilmPopularity previous = films.get(film.getId());
+        Set<Integer> genreIds = film.getGenres() == null ? new HashSet<>() : film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+        // A like may be recorded between inserting the film and registering it here.
+        long likes = previous == null ? Math.max(0, pendingLikes.getOrDefault(film.getId(), 0L))
+                : previous.getLikes();
+        pendingLikes.remove(film.getId());
+        replace(previous, FilmPopularity.builder()
+                .filmId(film.getId())
+                .year(film.getReleaseDate() == null ? null : film.getReleaseDate().getYear())
+                .genreIds(genreIds)
+                .likes(likes)
+                .build());
+    }
+
+    public synchronized void onFilmRemoved(Long filmId) {
+        pendingLikes.remove(filmId);
+        FilmPopularity film = films.remove(filmId);
+        if (film != null) {
+            Rank rank = new Rank(film.getFilmId(), film.getLikes());
+            boardKeys(film).forEach(key -> removeRank(key, rank));
+        }
+    }
+
+    public synchronized void onLikeChanged(Long filmId, int delta) {
+        FilmPopularity film = films.get(filmId);
+        if (film == null) {
+            log.debug("Like change for film {} which is not on the leaderboard yet", filmId);
+            pendingLikes.merge(filmId, (long) delta, Long::sum);
+            return;
+        }
+        replace(film, new FilmPopularity(film.getFilmId(), film.getYear(), film.getGenreIds(),
+                Math.max(0, film.getLikes() + delta)));
+    }
+
+    private void replace(FilmPopularity previous, FilmPopularity updated) {
+        films.put(updated.getFilmId(), updated);
+        addRank(boards, updated);
+        if (previous == null) {
+            return;
+        }
+        Rank rank = new Rank(updated.getFilmId(), updated.getLikes());
+        Rank previousRank = new Rank(previous.getFilmId(), previous.getLikes());
+        List<BoardKey> keys = boardKeys(updated);
+        boardKeys(previous).forEach(key -> {
+            if (!previousRank.equals(rank) || !keys.contains(key)) {
+                removeRank(key, previousRank);
+            }
+        });
+    }
+
+    private void addRank(Map<BoardKey, ConcurrentSkipListSet<Rank>> target, FilmPopularity film) {
+        Rank rank = new Rank(film.getFilmId(), film.getLikes());
+        boardKeys(film).forEach(key -> target
+                .computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(BY_LIKES_DESC))
+                .add(rank));
+    }
+
+    private void removeRank(BoardKey key, Rank rank) {
+        ConcurrentSkipListSet<Rank> board = boards.get(key);
+        if (board != null) {
+            board.remove(rank);
+        }
+    }
+
+    private List<BoardKey> boardKeys(FilmPopularity film) {
+        List<BoardKey> keys = new ArrayList<>();
+        keys.add(new BoardKey(null, null));
+        if (film.getYear() != null) {
+            keys.add(new BoardKey(null, film.getYear()));
+        }
+        for (Integer genreId : film.getGenreIds()) {
+            keys.add(new BoardKey(genreId, null));
+            if (film.getYear() != null) {
+                keys.add(new BoardKey(genreId, film.getYear()));
+            }
+        }
+        return keys;
+    }
+
+    private record BoardKey(Integer genreId, Integer year) {
+    }
+
+    private record Rank(long filmId, long likes) {
+    }
+}
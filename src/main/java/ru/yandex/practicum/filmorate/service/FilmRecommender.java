@@ -0,0 +1,311 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmRecommender {
+    private static final int NEIGHBOURS_LIMIT = 50;
+    private static final int REBUILD_SPLIT_THRESHOLD = 256;
+    private static final Comparator<Neighbour> BY_SIMILARITY_DESC = Comparator
+            .comparingDouble(Neighbour::similarity).reversed()
+            .thenComparingLong(Neighbour::filmId);
+
+    private final LikeStorage likeStorage;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, List<Neighbour>> neighbours = new ConcurrentHashMap<>();
+    private final Map<Long, Recommendations> recommendations = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Recommendations> eldest) {
+                    return size() > cacheSize;
+                }
+            });
+    private final AtomicLong version = new AtomicLong();
+    // A user's recommendations depend on the films they like and on those films' neighbour lists. Each change stamps
+    // the user and the films whose neighbours moved with the current version, and a cached entry stays valid while
+    // none of its inputs carries a newer stamp.
+    private final Map<Long, Long> userVersions = new HashMap<>();
+    private final Map<Long, Long> filmVersions = new HashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private Map<Long, Set<Long>> userLikes = new HashMap<>();
+    private Map<Long, Set<Long>> filmLikers = new HashMap<>();
+    private Map<Long, Map<Long, Integer>> coLikes = new HashMap<>();
+
+    @Value("${filmorate.recommendations.cache-size:10000}")
+    private int cacheSize;
+
+    @PostConstruct
+    public void reload() {
+        Map<Long, Set<Long>> likes = likeStorage.getAllUsersLikes();
+        List<Set<Long>> baskets = new ArrayList<>(likes.values());
+        Map<Long, Map<Long, Integer>> matrix = ForkJoinPool.commonPool()
+                .invoke(new CoLikesTask(baskets, 0, baskets.size()));
+        Map<Long, Set<Long>> likers = new HashMap<>();
+        likes.forEach((userId, films) -> films.forEach(filmId -> likers
+                .computeIfAbsent(filmId, v -> new HashSet<>())
+                .add(userId)));
+
+        lock.writeLock().lock();
+        try {
+            userLikes = likes;
+            filmLikers = likers;
+            coLikes = matrix;
+            neighbours.clear();
+            recommendations.clear();
+            userVersions.clear();
+            filmVersions.clear();
+            version.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Recommender rebuilt from likes of {} users on {} films", likes.size(), likers.size());
+    }
+
+    public List<Long> recommend(Long userId) {
+        Recommendations computed;
+        lock.readLock().lock();
+        try {
+            Recommendations cached = recommendations.get(userId);
+            if (cached != null && isCurrent(userId, cached)) {
+                cacheHits.increment();
+                return cached.filmIds();
+            }
+            computed = new Recommendations(version.get(), score(userId));
+        } finally {
+            lock.readLock().unlock();
+        }
+        cacheMisses.increment();
+        recommendations.put(userId, computed);
+        return computed.filmIds();
+    }
+
+    public int getCacheSize() {
+        return recommendations.size();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public void onLikeAdded(Long userId, Long filmId) {
+        lock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            addLike(userId, filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onLikeRemoved(Long userId, Long filmId) {
+        lock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            removeLike(userId, filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onFilmRemoved(Long filmId) {
+        lock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            for (Long userId : new ArrayList<>(filmLikers.getOrDefault(filmId, Set.of()))) {
+                removeLike(userId, filmId);
+            }
+            filmVersions.remove(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onUserRemoved(Long userId) {
+        lock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            for (Long filmId : new ArrayList<>(userLikes.getOrDefault(userId, Set.of()))) {
+                removeLike(userId, filmId);
+            }
+            recommendations.remove(userId);
+            userVersions.remove(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isCurrent(Long userId, Recommendations cached) {
+        if (userVersions.getOrDefault(userId, 0L) > cached.version()) {
+            return false;
+        }
+        for (Long filmId : userLikes.getOrDefault(userId, Set.of())) {
+            if (filmVersions.getOrDefault(filmId, 0L) > cached.version()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Long> score(Long userId) {
+        Set<Long> liked = userLikes.getOrDefault(userId, Set.of());
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long filmId : liked) {
+            for (Neighbour neighbour : neighbours.computeIfAbsent(filmId, this::findNeighbours)) {
+                if (!liked.contains(neighbour.filmId())) {
+                    scores.merge(neighbour.filmId(), neighbour.similarity(), Double::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private List<Neighbour> findNeighbours(Long filmId) {
+        int filmLikes = filmLikers.getOrDefault(filmId, Set.of()).size();
+        if (filmLikes == 0) {
+            return List.of();
+        }
+        PriorityQueue<Neighbour> top = new PriorityQueue<>(BY_SIMILARITY_DESC.reversed());
+        coLikes.getOrDefault(filmId, Map.of()).forEach((otherId, common) -> {
+            int otherLikes = filmLikers.getOrDefault(otherId, Set.of()).size();
+            top.add(new Neighbour(otherId, common / Math.sqrt((double) filmLikes * otherLikes)));
+            if (top.size() > NEIGHBOURS_LIMIT) {
+                top.poll();
+            }
+        });
+        List<Neighbour> result = new ArrayList<>(top);
+        result.sort(BY_SIMILARITY_DESC);
+        return result;
+    }
+
+    private void addLike(Long userId, Long filmId) {
+        Set<Long> films = userLikes.computeIfAbsent(userId, v -> new HashSet<>());
+        if (!films.add(filmId)) {
+            return;
+        }
+        for (Long otherId : films) {
+            if (!otherId.equals(filmId)) {
+                changeCoLikes(filmId, otherId, 1);
+                changeCoLikes(otherId, filmId, 1);
+            }
+        }
+        filmLikers.computeIfAbsent(filmId, v -> new HashSet<>()).add(userId);
+        userVersions.put(userId, version.get());
+        invalidateNeighbours(filmId);
+    }
+
+    private void removeLike(Long userId, Long filmId) {
+        Set<Long> films = userLikes.get(userId);
+        if (films == null || !films.remove(filmId)) {
+            return;
+        }
+        userVersions.put(userId, version.get());
+        invalidateNeighbours(filmId);
+        for (Long otherId : films) {
+            changeCoLikes(filmId, otherId, -1);
+            changeCoLikes(otherId, filmId, -1);
+        }
+        if (films.isEmpty()) {
+            userLikes.remove(userId);
+        }
+        Set<Long> likers = filmLikers.get(filmId);
+        likers.remove(userId);
+        if (likers.isEmpty()) {
+            filmLikers.remove(filmId);
+        }
+    }
+
+    private void changeCoLikes(Long filmId, Long otherId, int delta) {
+        Map<Long, Integer> row = coLikes.computeIfAbsent(filmId, v -> new HashMap<>());
+        if (row.merge(otherId, delta, Integer::sum) <= 0) {
+            row.remove(otherId);
+        }
+        if (row.isEmpty()) {
+            coLikes.remove(filmId);
+        }
+    }
+
+    private void invalidateNeighbours(Long filmId) {
+        long stamp = version.get();
+        neighbours.remove(filmId);
+        filmVersions.put(filmId, stamp);
+        coLikes.getOrDefault(filmId, Map.of()).keySet().forEach(otherId -> {
+            neighbours.remove(otherId);
+            filmVersions.put(otherId, stamp);
+        });
+    }
+
+    private record Neighbour(long filmId, double similarity) {
+    }
+
+    private record Recommendations(long version, List<Long> filmIds) {
+    }
+
+    private static class CoLikesTask extends RecursiveTask<Map<Long, Map<Long, Integer>>> {
+        private final List<Set<Long>> baskets;
+        private final int from;
+        private final int to;
+
+        CoLikesTask(List<Set<Long>> baskets, int from, int to) {
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, Map<Long, Integer>> compute() {
+            if (to - from <= REBUILD_SPLIT_THRESHOLD) {
+                Map<Long, Map<Long, Integer>> matrix = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    for (Long filmId : baskets.get(i)) {
+                        Map<Long, Integer> row = matrix.computeIfAbsent(filmId, v -> new HashMap<>());
+                        for (Long otherId : baskets.get(i)) {
+                            if (!otherId.equals(filmId)) {
+                                row.merge(otherId, 1, Integer::sum);
+                            }
+                        }
+                    }
+                }
+                return matrix;
+            }
+            int middle = (from + to) >>> 1;
+            CoLikesTask left = new CoLikesTask(baskets, from, middle);
+            left.fork();
+            Map<Long, Map<Long, Integer>> right = new CoLikesTask(baskets, middle, to).compute();
+            return merge(left.join(), right);
+        }
+
+        private Map<Long, Map<Long, Integer>> merge(Map<Long, Map<Long, Integer>> target,
+                                                    Map<Long, Map<Long, Integer>> source) {
+            source.forEach((filmId, row) -> {
+                Map<Long, Integer> targetRow = target.computeIfAbsent(filmId, v -> new HashMap<>());
+                row.forEach((otherId, common) -> targetRow.merge(otherId, common, Integer::sum));
+            });
+            return target;
+        }
+    }
+}
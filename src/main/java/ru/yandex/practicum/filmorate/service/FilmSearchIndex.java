@@ -0,0 +1,211 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmTitle;
+import ru.yandex.practicum.filmorate.storage.film.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    private static final int GRAM_SIZE = 3;
+
+    private final FilmStorage filmStorage;
+    private final DirectorStorage directorStorage;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> filmTitles = new HashMap<>();
+    private final Map<Long, String> directorNames = new HashMap<>();
+    private final Map<Long, Set<Long>> filmDirectors = new HashMap<>();
+    private final Map<Long, Set<Long>> directorFilms = new HashMap<>();
+    private final Map<String, Set<Long>> titleGrams = new HashMap<>();
+    private final Map<String, Set<Long>> directorGrams = new HashMap<>();
+
+    @PostConstruct
+    public void reload() {
+        Collection<Director> directors = directorStorage.findAll();
+        Collection<FilmTitle> films = filmStorage.getFilmTitles();
+        lock.writeLock().lock();
+        try {
+            filmTitles.clear();
+            directorNames.clear();
+            filmDirectors.clear();
+            directorFilms.clear();
+            titleGrams.clear();
+            directorGrams.clear();
+            directors.forEach(this::putDirector);
+            films.forEach(film -> putFilm(film.getFilmId(), film.getName(), film.getDirectorIds()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index loaded with {} films and {} directors", films.size(), directors.size());
+    }
+
+    public Set<Long> search(String query, boolean byTitle, boolean byDirector) {
+        String text = normalize(query);
+        Set<Long> filmIds = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            if (byTitle) {
+                filmIds.addAll(match(text, titleGrams, filmTitles));
+            }
+            if (byDirector) {
+                for (Long directorId : match(text, directorGrams, directorNames)) {
+                    filmIds.addAll(directorFilms.getOrDefault(directorId, Set.of()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return filmIds;
+    }
+
+    public void onFilmSaved(Film film) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(film.getId());
+            Set<Long> directorIds = new HashSet<>();
+            if (film.getDirectors() != null) {
+                film.getDirectors().forEach(director -> directorIds.add(director.getId()));
+            }
+            putFilm(film.getId(), film.getName(), directorIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onFilmRemoved(Long filmId) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onDirectorSaved(Director director) {
+        lock.writeLock().lock();
+        try {
+            String previous = directorNames.remove(director.getId());
+            if (previous != null) {
+                removeGrams(directorGrams, previous, director.getId());
+            }
+            putDirector(director);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onDirectorRemoved(Long directorId) {
+        lock.writeLock().lock();
+        try {
+            String previous = directorNames.remove(directorId);
+            if (previous != null) {
+                removeGrams(directorGrams, previous, directorId);
+            }
+            for (Long filmId : directorFilms.getOrDefault(directorId, Set.of())) {
+                filmDirectors.getOrDefault(filmId, new HashSet<>()).remove(directorId);
+            }
+            directorFilms.remove(directorId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<Long> match(String text, Map<String, Set<Long>> grams, Map<Long, String> names) {
+        Set<Long> ids = new HashSet<>();
+        if (text.length() < GRAM_SIZE) {
+            names.forEach((id, name) -> {
+                if (name.contains(text)) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        }
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : grams(text)) {
+            Set<Long> posting = grams.get(gram);
+            if (posting == null) {
+                return ids;
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        for (Long id : postings.getFirst()) {
+            if (names.get(id).contains(text)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private void putFilm(Long filmId, String name, Set<Long> directorIds) {
+        String title = normalize(name);
+        filmTitles.put(filmId, title);
+        addGrams(titleGrams, title, filmId);
+        filmDirectors.put(filmId, new HashSet<>(directorIds));
+        directorIds.forEach(directorId -> directorFilms
+                .computeIfAbsent(directorId, v -> new HashSet<>())
+                .add(filmId));
+    }
+
+    private void removeFilm(Long filmId) {
+        String title = filmTitles.remove(filmId);
+        if (title != null) {
+            removeGrams(titleGrams, title, filmId);
+        }
+        for (Long directorId : filmDirectors.getOrDefault(filmId, Set.of())) {
+            Set<Long> films = directorFilms.get(directorId);
+            if (films != null) {
+                films.remove(filmId);
+                if (films.isEmpty()) {
+                    directorFilms.remove(directorId);
+                }
+            }
+        }
+        filmDirectors.remove(filmId);
+    }
+
+    private void putDirector(Director director) {
+        String name = normalize(director.getName());
+        directorNames.put(director.getId(), name);
+        addGrams(directorGrams, name, director.getId());
+    }
+
+    private void addGrams(Map<String, Set<Long>> grams, String text, Long id) {
+        grams(text).forEach(gram -> grams.computeIfAbsent(gram, v -> new HashSet<>()).add(id));
+    }
+
+    private void removeGrams(Map<String, Set<Long>> grams, String text, Long id) {
+        for (String gram : grams(text)) {
+            Set<Long> posting = grams.get(gram);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,27 +2,62 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.model.enums.Operation;
+import ru.yandex.practicum.filmorate.model.enums.ReadMode;
+import ru.yandex.practicum.filmorate.storage.film.DirectorStorage;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.film.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.film.MpaStorage;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FilmService {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final FilmStorage filmStorage;
     private final MpaStorage mpaStorage;
     private final GenreStorage genreStorage;
+    private final DirectorStorage directorStorage;
     private final LikeStorage likeStorage;
+    private final FilmLeaderboard filmLeaderboard;
+    private final FilmRecommender filmRecommender;
+    private final AdjacencyIndex adjacencyIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final EventService eventService;
+    private final TransactionTemplate transactionTemplate;
+    private final LongAdder likesAdded = new LongAdder();
+    private final LongAdder likesRemoved = new LongAdder();
+
+    @Value("${filmorate.popular.mode:MEMORY}")
+    private ReadMode popularMode;
+    @Value("${filmorate.recommendations.mode:MEMORY}")
+    private ReadMode recommendationsMode;
+    @Value("${filmorate.common.mode:MEMORY}")
+    private ReadMode commonMode;
+    @Value("${filmorate.search.mode:MEMORY}")
+    private ReadMode searchMode;
+    @Value("${filmorate.films.import-batch-size:1000}")
+    private int importBatchSize;
 
     private Film getFilmOrThrow(Long filmId) {
         return filmStorage.findFilm(filmId)
@@ -30,52 +65,176 @@ public class FilmService {
     }
 
     public void addLikeToFilm(Long userId, Long filmId) {
-        likeStorage.addLikeToFilm(userId, filmId);
+        if (likeStorage.addLikeToFilm(userId, filmId)) {
+            likesAdded.increment();
+            filmLeaderboard.onLikeChanged(filmId, 1);
+            filmRecommender.onLikeAdded(userId, filmId);
+            adjacencyIndex.onLikeAdded(userId, filmId);
+        }
+        eventService.add(filmId, userId, EventType.LIKE, Operation.ADD);
     }
 
     public void removeLikeToFilm(Long userId, Long filmId) {
-        likeStorage.removeLikeToFilm(userId, filmId);
+        if (likeStorage.removeLikeToFilm(userId, filmId)) {
+            likesRemoved.increment();
+            filmLeaderboard.onLikeChanged(filmId, -1);
+            filmRecommender.onLikeRemoved(userId, filmId);
+            adjacencyIndex.onLikeRemoved(userId, filmId);
+        }
+        eventService.add(filmId, userId, EventType.LIKE, Operation.REMOVE);
+    }
+
+    public long getLikesAdded() {
+        return likesAdded.sum();
+    }
+
+    public long getLikesRemoved() {
+        return likesRemoved.sum();
     }
 
     public Collection<Film> getTopFilms(Long count, Integer genreId, Integer year) {
-        return filmStorage.getTopFilms(count, genreId, year);
+        return switch (popularMode) {
+            case MEMORY -> filmStorage.findFilmsByIds(filmLeaderboard.getTopFilmIds(count, genreId, year));
+            case SQL -> filmStorage.getTopFilms(count, genreId, year);
+            case VERIFY -> verifyTopFilms(count, genreId, year);
+        };
+    }
+
+    private Collection<Film> verifyTopFilms(Long count, Integer genreId, Integer year) {
+        Collection<Film> films = filmStorage.getTopFilms(count, genreId, year);
+        List<Long> expected = films.stream().map(Film::getId).toList();
+        List<Long> actual = filmLeaderboard.getTopFilmIds(count, genreId, year);
+        if (!expected.equals(actual)) {
+            log.warn("Leaderboard is inconsistent for count={}, genreId={}, year={}: sql={}, memory={}",
+                    count, genreId, year, expected, actual);
+        }
+        return films;
     }
 
     public Collection<Film> findAll() {
         return filmStorage.findAll();
     }
 
+    public Collection<Film> findPage(Long afterId, Integer limit) {
+        return filmStorage.findPage(afterId == null ? 0 : afterId, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
+
+    public void streamAll(Consumer<List<Film>> consumer) {
+        List<Film> chunk;
+        long afterId = 0;
+        do {
+            chunk = filmStorage.findPage(afterId, STREAM_CHUNK_SIZE);
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+                afterId = chunk.getLast().getId();
+            }
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+
     public Film findFilm(Long id) {
         return getFilmOrThrow(id);
     }
 
     public Film create(Film film) {
-        Integer mpaId = film.getMpa().getId();
-        if (mpaStorage.findMpa(mpaId) == null) {
-            throw new NotFoundException("MPA with id " + mpaId + " not found");
-        }
+        validateReferences(List.of(film));
+        Film created = filmStorage.create(film);
+        filmLeaderboard.onFilmSaved(created);
+        filmSearchIndex.onFilmSaved(created);
+        return created;
+    }
 
-        for (Genre genre : film.getGenres()) {
-            Integer genreId = genre.getId();
-            if (genreStorage.findGenre(genreId) == null) {
-                throw new NotFoundException("Genre with id " + genreId + " not found");
-            }
+    public List<Film> createAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return List.of();
+        }
+        validateReferences(films);
+        long start = System.nanoTime();
+        List<Film> created = new ArrayList<>(films.size());
+        for (int from = 0; from < films.size(); from += importBatchSize) {
+            List<Film> chunk = films.subList(from, Math.min(from + importBatchSize, films.size()));
+            List<Film> saved = transactionTemplate.execute(status -> filmStorage.createAll(chunk));
+            saved.forEach(film -> {
+                filmLeaderboard.onFilmSaved(film);
+                filmSearchIndex.onFilmSaved(film);
+            });
+            created.addAll(saved);
         }
-        return filmStorage.create(film);
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        log.info("Imported {} films in {} ms ({} films/s)", created.size(), elapsed / 1_000_000,
+                created.size() * 1_000_000_000L / elapsed);
+        return created;
     }
 
     public Film updateFilm(Film newFilm) {
-        return filmStorage.updateFilm(newFilm);
+        validateReferences(List.of(newFilm));
+        Film updated = filmStorage.updateFilm(newFilm);
+        filmLeaderboard.onFilmSaved(updated);
+        filmSearchIndex.onFilmSaved(updated);
+        return updated;
+    }
+
+    private void validateReferences(List<Film> films) {
+        Set<Integer> mpaIds = new TreeSet<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        Set<Integer> genreIds = new TreeSet<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        Set<Long> directorIds = new TreeSet<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (Film film : films) {
+            if (film.getMpa() != null) {
+                mpaIds.add(film.getMpa().getId());
+            }
+            if (film.getGenres() != null) {
+                film.getGenres().forEach(genre -> genreIds.add(genre.getId()));
+            }
+            if (film.getDirectors() != null) {
+                film.getDirectors().forEach(director -> directorIds.add(director.getId()));
+            }
+        }
+        mpaStorage.findMpas(mpaIds).forEach(mpa -> mpaIds.remove(mpa.getId()));
+        genreStorage.findGenres(genreIds).forEach(genre -> genreIds.remove(genre.getId()));
+        directorStorage.findDirectors(directorIds).forEach(director -> directorIds.remove(director.getId()));
+
+        List<String> missing = new ArrayList<>();
+        if (!mpaIds.isEmpty()) {
+            missing.add("MPA with ids " + mpaIds);
+        }
+        if (!genreIds.isEmpty()) {
+            missing.add("Genres with ids " + genreIds);
+        }
+        if (!directorIds.isEmpty()) {
+            missing.add("Directors with ids " + directorIds);
+        }
+        if (!missing.isEmpty()) {
+            log.warn("Film references not found: {}", missing);
+            throw new NotFoundException(String.join(", ", missing) + " not found");
+        }
     }
 
     public void removeFilm(Long id) {
         filmStorage.removeFilm(id);
+        filmLeaderboard.onFilmRemoved(id);
+        filmRecommender.onFilmRemoved(id);
+        adjacencyIndex.onFilmRemoved(id);
+        filmSearchIndex.onFilmRemoved(id);
     }
 
     public Collection<Film> searchFilm(String query, Set<String> by) {
         if (query == null && (by == null || by.isEmpty())) {
-            return filmStorage.getTopFilms(10L, null, null);
+            return getTopFilms(10L, null, null);
         }
+        return switch (searchMode) {
+            case MEMORY -> filmStorage.findFilmsByIds(searchFilmIds(query, by));
+            case SQL -> searchFilmsInDb(query, by);
+            case VERIFY -> verifySearchFilm(query, by);
+        };
+    }
+
+    private List<Long> searchFilmIds(String query, Set<String> by) {
+        return filmSearchIndex.search(query, by.contains("title"), by.contains("director")).stream()
+                .sorted(Comparator.<Long>comparingLong(filmLeaderboard::getLikes).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+    }
+
+    private Collection<Film> searchFilmsInDb(String query, Set<String> by) {
         if (by.contains("director") && by.contains("title")) {
             return filmStorage.getFilmsByTitleAndDirector(query);
         } else if (by.contains("title")) {
@@ -86,8 +245,41 @@ public class FilmService {
         return Collections.emptyList();
     }
 
+    private Collection<Film> verifySearchFilm(String query, Set<String> by) {
+        Collection<Film> films = searchFilmsInDb(query, by);
+        List<Long> expected = films.stream().map(Film::getId).toList();
+        List<Long> actual = searchFilmIds(query, by);
+        if (!expected.equals(actual)) {
+            log.warn("Search index is inconsistent for query '{}' by {}: sql={}, memory={}",
+                    query, by, expected, actual);
+        }
+        return films;
+    }
+
     public Collection<Film> getCommonFilms(Long userId, Long friendId) {
-        return filmStorage.getCommonFilms(userId, friendId);
+        return switch (commonMode) {
+            case MEMORY -> filmStorage.findFilmsByIds(getCommonFilmIds(userId, friendId));
+            case SQL -> filmStorage.getCommonFilms(userId, friendId);
+            case VERIFY -> verifyCommonFilms(userId, friendId);
+        };
+    }
+
+    private List<Long> getCommonFilmIds(Long userId, Long friendId) {
+        return adjacencyIndex.getCommonFilmIds(userId, friendId).stream()
+                .sorted(Comparator.<Long>comparingLong(filmLeaderboard::getLikes).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+    }
+
+    private Collection<Film> verifyCommonFilms(Long userId, Long friendId) {
+        Collection<Film> films = filmStorage.getCommonFilms(userId, friendId);
+        List<Long> expected = films.stream().map(Film::getId).toList();
+        List<Long> actual = getCommonFilmIds(userId, friendId);
+        if (!expected.equals(actual)) {
+            log.warn("Adjacency index is inconsistent for common films of users {} and {}: sql={}, memory={}",
+                    userId, friendId, expected, actual);
+        }
+        return films;
     }
 
     public Collection<Film> getDirectorSortedFilms(Long directorId, String sortType) {
@@ -95,6 +287,21 @@ public class FilmService {
     }
 
     public Collection<Film> getRecommendations(Long id) {
-        return filmStorage.getRecommendations(id);
+        return switch (recommendationsMode) {
+            case MEMORY -> filmStorage.findFilmsByIds(filmRecommender.recommend(id));
+            case SQL -> filmStorage.getRecommendations(id);
+            case VERIFY -> verifyRecommendations(id);
+        };
+    }
+
+    private Collection<Film> verifyRecommendations(Long id) {
+        Collection<Film> films = filmStorage.getRecommendations(id);
+        Set<Long> expected = films.stream().map(Film::getId).collect(Collectors.toSet());
+        List<Long> actual = filmRecommender.recommend(id);
+        if (!actual.containsAll(expected)) {
+            log.warn("Recommender misses films of the most similar user {}: sql={}, memory={}",
+                    id, expected, actual);
+        }
+        return films;
     }
 }
\ No newline at end of file
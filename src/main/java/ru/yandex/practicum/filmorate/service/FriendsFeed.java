@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventsPersisted;
+import ru.yandex.practicum.filmorate.storage.event.EventStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendshipStorage;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FriendsFeed {
+    private final EventStorage eventStorage;
+    private final FriendshipStorage friendshipStorage;
+    private final Map<Long, Set<Long>> following = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> followers = new ConcurrentHashMap<>();
+    private final Map<Long, FeedRing> rings = new ConcurrentHashMap<>();
+
+    @Value("${filmorate.friends-feed.size:100}")
+    private int feedSize;
+    @Value("${filmorate.friends-feed.fan-out-limit:1000}")
+    private int fanOutLimit;
+    @Value("${filmorate.friends-feed.rebuild-events:100000}")
+    private int rebuildEvents;
+
+    @PostConstruct
+    public void reload() {
+        following.clear();
+        followers.clear();
+        rings.clear();
+        friendshipStorage.getAllFriendIds().forEach((userId, friendIds) ->
+                friendIds.forEach(friendId -> follow(userId, friendId)));
+        List<Event> events = eventStorage.findLatest(rebuildEvents);
+        events.forEach(this::fanOut);
+        log.info("Friends feed rebuilt for {} followers from {} events", rings.size(), events.size());
+    }
+
+    public List<Event> getFeed(Long userId, int limit) {
+        Set<Long> friendIds = following.getOrDefault(userId, Set.of());
+        FeedRing ring = rings.get(userId);
+        List<Long> pushedIds = ring == null ? List.of() : ring.latest(limit);
+        List<Long> pulledFrom = friendIds.stream()
+                .filter(this::isFanOutOnRead)
+                .toList();
+        List<Event> events = new ArrayList<>(eventStorage.findByIds(pushedIds));
+        events.addAll(eventStorage.findLatestByUserIds(pulledFrom, limit));
+        return events.stream()
+                .filter(event -> friendIds.contains(event.getUserId()))
+                .sorted(Comparator.comparing(Event::getId).reversed())
+                .distinct()
+                .limit(limit)
+                .toList();
+    }
+
+    @EventListener
+    public void onEventsPersisted(EventsPersisted persisted) {
+        persisted.getEvents().forEach(this::fanOut);
+    }
+
+    public void onFriendAdded(Long userId, Long friendId) {
+        follow(userId, friendId);
+    }
+
+    public void onFriendRemoved(Long userId, Long friendId) {
+        unlink(following, userId, friendId);
+        unlink(followers, friendId, userId);
+    }
+
+    public void onUserRemoved(Long userId) {
+        rings.remove(userId);
+        Set<Long> friendIds = following.remove(userId);
+        if (friendIds != null) {
+            friendIds.forEach(friendId -> unlink(followers, friendId, userId));
+        }
+        Set<Long> followerIds = followers.remove(userId);
+        if (followerIds != null) {
+            followerIds.forEach(followerId -> unlink(following, followerId, userId));
+        }
+    }
+
+    private void follow(Long userId, Long friendId) {
+        following.computeIfAbsent(userId, v -> ConcurrentHashMap.newKeySet()).add(friendId);
+        followers.computeIfAbsent(friendId, v -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    private void unlink(Map<Long, Set<Long>> links, Long userId, Long linkedId) {
+        Set<Long> linkedIds = links.get(userId);
+        if (linkedIds != null) {
+            linkedIds.remove(linkedId);
+        }
+    }
+
+    private boolean isFanOutOnRead(Long userId) {
+        return followers.getOrDefault(userId, Set.of()).size() > fanOutLimit;
+    }
+
+    private void fanOut(Event event) {
+        if (event.getId() == null || isFanOutOnRead(event.getUserId())) {
+            return;
+        }
+        for (Long followerId : followers.getOrDefault(event.getUserId(), Set.of())) {
+            rings.computeIfAbsent(followerId, v -> new FeedRing(feedSize)).add(event.getId());
+        }
+    }
+
+    private static class FeedRing {
+        private final long[] ids;
+        private int next;
+        private int size;
+
+        FeedRing(int capacity) {
+            ids = new long[capacity];
+        }
+
+        synchronized void add(long id) {
+            ids[next] = id;
+            next = (next + 1) % ids.length;
+            size = Math.min(size + 1, ids.length);
+        }
+
+        synchronized List<Long> latest(int limit) {
+            int count = Math.min(limit, size);
+            List<Long> latest = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                latest.add(ids[(next - i + ids.length) % ids.length]);
+            }
+            return latest;
+        }
+    }
+}
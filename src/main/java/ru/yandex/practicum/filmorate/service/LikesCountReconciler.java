@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LikesCountReconciler {
+    private final LikeStorage likeStorage;
+    private final FilmLeaderboard filmLeaderboard;
+
+    @Scheduled(initialDelayString = "${filmorate.likes-count.reconcile-interval:PT1H}",
+            fixedDelayString = "${filmorate.likes-count.reconcile-interval:PT1H}")
+    public void reconcile() {
+        int repaired = likeStorage.reconcileLikesCount();
+        if (repaired > 0) {
+            log.warn("Likes count drifted for {} films and was repaired", repaired);
+        } else {
+            log.debug("Likes count is consistent with likes table");
+        }
+        filmLeaderboard.reload();
+    }
+}
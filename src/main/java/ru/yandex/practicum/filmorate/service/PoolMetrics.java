@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.PoolWaitTracker;
+import ru.yandex.practicum.filmorate.model.ConnectionPoolStats;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class PoolMetrics {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final ObjectProvider<HikariDataSource> dataSources;
+    private final PoolWaitTracker poolWaitTracker;
+
+    public List<ConnectionPoolStats> getPools() {
+        return dataSources.orderedStream()
+                .map(this::stats)
+                .toList();
+    }
+
+    private ConnectionPoolStats stats(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        PoolWaitTracker.WaitStats waits = poolWaitTracker.getStats(dataSource.getPoolName());
+        long acquisitions = waits.getAcquisitions();
+        return ConnectionPoolStats.builder()
+                .pool(dataSource.getPoolName())
+                .maximumPoolSize(dataSource.getMaximumPoolSize())
+                .active(pool == null ? 0 : pool.getActiveConnections())
+                .idle(pool == null ? 0 : pool.getIdleConnections())
+                .total(pool == null ? 0 : pool.getTotalConnections())
+                .pending(pool == null ? 0 : pool.getThreadsAwaitingConnection())
+                .acquisitions(acquisitions)
+                .averageWaitMillis(acquisitions == 0 ? 0 : waits.getWaitNanos() / NANOS_PER_MILLI / acquisitions)
+                .maxWaitMillis(waits.getMaxWaitNanos() / NANOS_PER_MILLI)
+                .averageUsageMillis(acquisitions == 0 ? 0 : (double) waits.getUsageMillis() / acquisitions)
+                .timeouts(waits.getTimeouts())
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.config.QueryTracker;
+import ru.yandex.practicum.filmorate.model.QueryStats;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class QueryMetrics {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private final QueryTracker queryTracker;
+
+    public List<QueryStats> getQueries() {
+        return queryTracker.getStatements().entrySet().stream()
+                .map(entry -> stats(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(QueryStats::getTotalMillis).reversed())
+                .toList();
+    }
+
+    private QueryStats stats(String statement, QueryTracker.StatementStats stats) {
+        long calls = stats.getCalls();
+        long[] buckets = stats.getBuckets();
+        double maxMillis = stats.getMaxNanos() / NANOS_PER_MILLI;
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            histogram.put(i < QueryTracker.BUCKET_BOUNDS_MICROS.length
+                    ? "le " + QueryTracker.BUCKET_BOUNDS_MICROS[i] / MICROS_PER_MILLI + " ms" : "+Inf", buckets[i]);
+        }
+        return QueryStats.builder()
+                .statement(statement)
+                .calls(calls)
+                .errors(stats.getErrors())
+                .rows(stats.getRows())
+                .totalMillis(stats.getTotalNanos() / NANOS_PER_MILLI)
+                .averageMillis(calls == 0 ? 0 : stats.getTotalNanos() / NANOS_PER_MILLI / calls)
+                .p50Millis(percentile(buckets, calls, 0.5, maxMillis))
+                .p99Millis(percentile(buckets, calls, 0.99, maxMillis))
+                .maxMillis(maxMillis)
+                .histogram(histogram)
+                .build();
+    }
+
+    private double percentile(long[] buckets, long calls, double quantile, double maxMillis) {
+        long rank = (long) Math.ceil(quantile * calls);
+        long seen = 0;
+        for (int i = 0; i < QueryTracker.BUCKET_BOUNDS_MICROS.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank && rank > 0) {
+                return Math.min(QueryTracker.BUCKET_BOUNDS_MICROS[i] / MICROS_PER_MILLI, maxMillis);
+            }
+        }
+        return maxMillis;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.model.enums.EventType;
 import ru.yandex.practicum.filmorate.model.enums.Operation;
@@ -12,6 +13,7 @@ import ru.yandex.practicum.filmorate.storage.film.ReviewStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 @Slf4j
 @Service
@@ -21,10 +23,14 @@ public class ReviewService {
     private final UserStorage userStorage;
     private final FilmStorage filmStorage;
     private final EventService eventService;
+    private final LongAdder votesAdded = new LongAdder();
+    private final LongAdder votesRemoved = new LongAdder();
 
     public Review createReview(Review review) {
         userStorage.findUser(review.getUserId());
-        filmStorage.findFilm(review.getFilmId());
+        if (!filmStorage.existsFilm(review.getFilmId())) {
+            throw new NotFoundException("Film with id " + review.getFilmId() + " not found");
+        }
         Review result = reviewStorage.createReview(review);
         eventService.add(result.getReviewId(), review.getUserId(), EventType.REVIEW, Operation.ADD);
         return result;
@@ -47,27 +53,51 @@ public class ReviewService {
                 .orElseThrow(() -> new NotFoundException("Review with id = " + id + " not found"));
     }
 
-    public List<Review> getReviewsToFilm(Long filmId, int count) {
-        return reviewStorage.getReviewsToFilm(filmId, count);
+    public List<Review> getReviewsToFilm(Long filmId, int count, Integer afterUseful, Long afterId) {
+        checkKeyset(afterUseful, afterId);
+        return reviewStorage.getReviewsToFilm(filmId, count, afterUseful, afterId);
     }
 
-    public List<Review> getAllReviews(int count) {
-        return reviewStorage.getAllReviews(count);
+    public List<Review> getAllReviews(int count, Integer afterUseful, Long afterId) {
+        checkKeyset(afterUseful, afterId);
+        return reviewStorage.getAllReviews(count, afterUseful, afterId);
+    }
+
+    private void checkKeyset(Integer afterUseful, Long afterId) {
+        if ((afterUseful == null) != (afterId == null)) {
+            throw new ValidationException("afterUseful and afterId must be specified together");
+        }
     }
 
     public void likeReview(Long id, Long userId) {
-        reviewStorage.likeDislike(id, userId, true);
+        if (reviewStorage.likeDislike(id, userId, true)) {
+            votesAdded.increment();
+        }
     }
 
     public void dislikeReview(Long id, Long userId) {
-        reviewStorage.likeDislike(id, userId, false);
+        if (reviewStorage.likeDislike(id, userId, false)) {
+            votesAdded.increment();
+        }
     }
 
     public void deleteLike(Long id, Long userId) {
-        reviewStorage.deleteLikeDislike(id, userId, true);
+        if (reviewStorage.deleteLikeDislike(id, userId, true)) {
+            votesRemoved.increment();
+        }
     }
 
     public void deleteDislike(Long id, Long userId) {
-        reviewStorage.deleteLikeDislike(id, userId, false);
+        if (reviewStorage.deleteLikeDislike(id, userId, false)) {
+            votesRemoved.increment();
+        }
+    }
+
+    public long getVotesAdded() {
+        return votesAdded.sum();
+    }
+
+    public long getVotesRemoved() {
+        return votesRemoved.sum();
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.storage.film.ReviewStorage;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReviewUsefulReconciler {
+    private final ReviewStorage reviewStorage;
+
+    @Value("${filmorate.review-useful.reconcile-batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${filmorate.review-useful.reconcile-interval:PT1H}",
+            fixedDelayString = "${filmorate.review-useful.reconcile-interval:PT1H}")
+    public void reconcile() {
+        long maxId = reviewStorage.getMaxReviewId();
+        int repaired = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+            repaired += reviewStorage.reconcileUseful(fromId, fromId + batchSize - 1);
+        }
+        if (repaired > 0) {
+            log.warn("Usefulness drifted for {} reviews and was repaired", repaired);
+        } else {
+            log.debug("Usefulness is consistent with review ratings");
+        }
+    }
+}
@@ -2,26 +2,51 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.model.enums.Operation;
+import ru.yandex.practicum.filmorate.model.enums.ReadMode;
+import ru.yandex.practicum.filmorate.storage.film.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.user.FriendshipStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final UserStorage userStorage;
     private final FriendshipStorage friendshipStorage;
+    private final LikeStorage likeStorage;
+    private final FilmLeaderboard filmLeaderboard;
+    private final FilmRecommender filmRecommender;
+    private final AdjacencyIndex adjacencyIndex;
+    private final EventService eventService;
+    private final FriendsFeed friendsFeed;
+
+    @Value("${filmorate.common.mode:MEMORY}")
+    private ReadMode commonMode;
 
     public void addFriend(Long userId, Long user2Id) {
         friendshipStorage.addFriend(userId, user2Id);
+        adjacencyIndex.onFriendAdded(userId, user2Id);
+        friendsFeed.onFriendAdded(userId, user2Id);
+        eventService.add(user2Id, userId, EventType.FRIEND, Operation.ADD);
     }
 
     public void removeFriend(Long userId, Long friendId) {
         friendshipStorage.removeFriend(userId, friendId);
+        adjacencyIndex.onFriendRemoved(userId, friendId);
+        friendsFeed.onFriendRemoved(userId, friendId);
+        eventService.add(friendId, userId, EventType.FRIEND, Operation.REMOVE);
     }
 
     public Collection<User> getUserFriends(Long id) {
@@ -29,13 +54,38 @@ public class UserService {
     }
 
     public Collection<User> getCommonFriends(Long userId, Long user2Id) {
-        return friendshipStorage.getCommonFriends(userId, user2Id);
+        return switch (commonMode) {
+            case MEMORY -> getCommonFriendsFromIndex(userId, user2Id);
+            case SQL -> friendshipStorage.getCommonFriends(userId, user2Id);
+            case VERIFY -> verifyCommonFriends(userId, user2Id);
+        };
+    }
+
+    private Collection<User> getCommonFriendsFromIndex(Long userId, Long user2Id) {
+        userStorage.findUser(userId);
+        userStorage.findUser(user2Id);
+        return userStorage.findUsersByIds(adjacencyIndex.getCommonFriendIds(userId, user2Id));
+    }
+
+    private Collection<User> verifyCommonFriends(Long userId, Long user2Id) {
+        Collection<User> users = friendshipStorage.getCommonFriends(userId, user2Id);
+        Set<Long> expected = users.stream().map(User::getId).collect(Collectors.toSet());
+        Set<Long> actual = new HashSet<>(adjacencyIndex.getCommonFriendIds(userId, user2Id));
+        if (!expected.equals(actual)) {
+            log.warn("Adjacency index is inconsistent for common friends of users {} and {}: sql={}, memory={}",
+                    userId, user2Id, expected, actual);
+        }
+        return users;
     }
 
     public Collection<User> findAll() {
         return userStorage.findAll();
     }
 
+    public Collection<User> findPage(Long afterId, Integer limit) {
+        return userStorage.findPage(afterId == null ? 0 : afterId, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
+
     public User findUser(Long id) {
         return userStorage.findUser(id);
     }
@@ -52,6 +102,11 @@ public class UserService {
     }
 
     public void removeUser(Long id) {
+        Set<Long> likedFilms = likeStorage.getUserLikes(id);
         userStorage.removeUser(id);
+        likedFilms.forEach(filmId -> filmLeaderboard.onLikeChanged(filmId, -1));
+        filmRecommender.onUserRemoved(id);
+        adjacencyIndex.onUserRemoved(id);
+        friendsFeed.onUserRemoved(id);
     }
 }
\ No newline at end of file
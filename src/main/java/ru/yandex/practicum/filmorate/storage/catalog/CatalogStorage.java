@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.storage.catalog;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.CatalogEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CatalogStorage {
+    void mergeFilms(List<Film> films);
+
+    void mergeUsers(List<User> users);
+
+    int[] mergeLikes(List<Like> likes);
+
+    int[] mergeFriendships(List<Friendship> friendships);
+
+    List<Like> findLikesPage(Like after, int limit);
+
+    List<Friendship> findFriendshipsPage(Friendship after, int limit);
+
+    void restartFilmIds();
+
+    void restartUserIds();
+
+    Optional<Long> findCheckpoint(String importId, CatalogEntity entity);
+
+    void saveCheckpoint(String importId, CatalogEntity entity, long line);
+}
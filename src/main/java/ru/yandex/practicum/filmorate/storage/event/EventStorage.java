@@ -1,13 +1,23 @@
 package ru.yandex.practicum.filmorate.storage.event;
 
 import ru.yandex.practicum.filmorate.model.Event;
-import ru.yandex.practicum.filmorate.model.enums.EventType;
-import ru.yandex.practicum.filmorate.model.enums.Operation;
+import ru.yandex.practicum.filmorate.model.FeedQuery;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface EventStorage {
-    boolean add(Long entityId, Long userId, EventType eventType, Operation operation);
+    void addAll(List<Event> events);
+
+    List<Event> findByIds(List<Long> ids);
+
+    List<Event> findLatestByUserIds(Collection<Long> userIds, int limit);
+
+    List<Event> findLatest(int limit);
+
+    List<Event> findCreatedBefore(long createdBefore, int limit);
+
+    int removeAll(List<Long> ids);
 
     boolean remove(long id);
 
@@ -15,5 +25,7 @@ public interface EventStorage {
 
     Collection<Event> findByUserId(Long id);
 
+    List<Event> findByUserId(Long id, FeedQuery feedQuery);
+
     Event find(long id);
 }
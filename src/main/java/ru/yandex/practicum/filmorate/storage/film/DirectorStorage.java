@@ -14,5 +14,7 @@ public interface DirectorStorage {
 
     Collection<Director> findAll();
 
+    Collection<Director> findDirectors(Collection<Long> ids);
+
     void removeDirector(Long id);
 }
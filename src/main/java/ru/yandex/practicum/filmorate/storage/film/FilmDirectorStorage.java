@@ -1,9 +1,17 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.List;
+import java.util.Set;
 
 public interface FilmDirectorStorage {
     void addDirectorToFilm(Long filmId, List<Director> directorId);
+
+    void addDirectorsToFilms(List<Film> films);
+
+    void removeDirectorsFromFilm(Long filmId, List<Long> directorIds);
+
+    Set<Long> getDirectorIds(Long filmId);
 }
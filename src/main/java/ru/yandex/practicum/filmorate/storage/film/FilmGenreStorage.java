@@ -1,9 +1,17 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.util.List;
+import java.util.Set;
 
 public interface FilmGenreStorage {
     void addGenreToFilm(Long filmId, List<Genre> genreId);
+
+    void addGenresToFilms(List<Film> films);
+
+    void removeGenresFromFilm(Long filmId, List<Integer> genreIds);
+
+    Set<Integer> getGenreIds(Long filmId);
 }
\ No newline at end of file
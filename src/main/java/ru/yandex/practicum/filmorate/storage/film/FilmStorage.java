@@ -1,17 +1,32 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPopularity;
+import ru.yandex.practicum.filmorate.model.FilmTitle;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface FilmStorage {
     Collection<Film> findAll();
 
+    List<Film> findPage(Long afterId, int limit);
+
     Optional<Film> findFilm(Long id);
 
+    boolean existsFilm(Long id);
+
+    List<Film> findFilmsByIds(List<Long> ids);
+
+    Collection<FilmPopularity> getFilmsPopularity();
+
+    Collection<FilmTitle> getFilmTitles();
+
     Film create(Film film);
 
+    List<Film> createAll(List<Film> films);
+
     Film updateFilm(Film newFilm);
 
     void removeFilm(Long id);
@@ -8,4 +8,6 @@ public interface GenreStorage {
     Genre findGenre(Integer id);
 
     Collection<Genre> findAll();
+
+    Collection<Genre> findGenres(Collection<Integer> ids);
 }
\ No newline at end of file
@@ -1,7 +1,16 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import java.util.Map;
+import java.util.Set;
+
 public interface LikeStorage {
-    void addLikeToFilm(Long userId, Long filmId);
+    boolean addLikeToFilm(Long userId, Long filmId);
+
+    boolean removeLikeToFilm(Long userId, Long filmId);
+
+    Set<Long> getUserLikes(Long userId);
+
+    Map<Long, Set<Long>> getAllUsersLikes();
 
-    void removeLikeToFilm(Long userId, Long filmId);
+    int reconcileLikesCount();
 }
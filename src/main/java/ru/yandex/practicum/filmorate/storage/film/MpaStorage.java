@@ -8,4 +8,6 @@ public interface MpaStorage {
     Mpa findMpa(Integer id);
 
     Collection<Mpa> findAll();
+
+    Collection<Mpa> findMpas(Collection<Integer> ids);
 }
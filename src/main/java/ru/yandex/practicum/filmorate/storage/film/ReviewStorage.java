@@ -14,11 +14,15 @@ public interface ReviewStorage {
 
     Optional<Review> getReviewById(Long id);
 
-    List<Review> getReviewsToFilm(Long filmId, int count);
+    List<Review> getReviewsToFilm(Long filmId, int count, Integer afterUseful, Long afterId);
 
-    List<Review> getAllReviews(int count);
+    List<Review> getAllReviews(int count, Integer afterUseful, Long afterId);
 
-    void likeDislike(Long reviewId, Long userId, boolean isPositive);
+    boolean likeDislike(Long reviewId, Long userId, boolean isPositive);
 
-    void deleteLikeDislike(Long reviewId, Long userId, boolean isPositive);
+    boolean deleteLikeDislike(Long reviewId, Long userId, boolean isPositive);
+
+    long getMaxReviewId();
+
+    int reconcileUseful(long fromId, long toId);
 }
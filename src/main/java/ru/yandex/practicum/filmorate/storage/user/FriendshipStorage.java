@@ -3,6 +3,8 @@ package ru.yandex.practicum.filmorate.storage.user;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
 
 public interface FriendshipStorage {
     void addFriend(Long userId, Long user2Id);
@@ -12,4 +14,6 @@ public interface FriendshipStorage {
     Collection<User> getUserFriends(Long id);
 
     Collection<User> getCommonFriends(Long userId, Long user2Id);
+
+    Map<Long, Set<Long>> getAllFriendIds();
 }
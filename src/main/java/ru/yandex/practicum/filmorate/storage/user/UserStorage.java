@@ -3,12 +3,17 @@ package ru.yandex.practicum.filmorate.storage.user;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface UserStorage {
     Collection<User> findAll();
 
+    Collection<User> findPage(Long afterId, int limit);
+
     User findUser(Long id);
 
+    List<User> findUsersByIds(List<Long> ids);
+
     User create(User user);
 
     User updateUser(User newUser);
@@ -1,3 +1,4 @@
+DROP TABLE IF EXISTS IMPORT_CHECKPOINTS;
 DROP TABLE IF EXISTS FILMDIRECTOR;
 DROP TABLE IF EXISTS DIRECTORS;
 DROP TABLE IF EXISTS EVENTS;
@@ -30,9 +31,13 @@ name VARCHAR(100) NOT NULL,
 description VARCHAR(500) NOT NULL,
 releaseDate DATE,
 duration SMALLINT NOT NULL,
-mpa_id SMALLINT NOT NULL REFERENCES mpa(id) ON DELETE CASCADE
+mpa_id SMALLINT NOT NULL REFERENCES mpa(id) ON DELETE CASCADE,
+likes_count INTEGER NOT NULL DEFAULT 0
 );
 
+CREATE INDEX IF NOT EXISTS films_likes_count_idx ON films(likes_count DESC, id);
+CREATE INDEX IF NOT EXISTS films_release_date_idx ON films(releaseDate, likes_count DESC);
+
 CREATE TABLE IF NOT EXISTS genres (
 id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
 name VARCHAR(100)
@@ -44,12 +49,16 @@ genre_id INTEGER REFERENCES genres(id) ON DELETE CASCADE,
 PRIMARY KEY (film_id, genre_id)
 );
 
+CREATE INDEX IF NOT EXISTS film_genre_genre_idx ON filmGenre(genre_id, film_id);
+
 CREATE TABLE IF NOT EXISTS likes (
 film_id INTEGER NOT NULL REFERENCES films(id) ON DELETE CASCADE,
 user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
 PRIMARY KEY (film_id, user_id)
 );
 
+CREATE INDEX IF NOT EXISTS likes_user_idx ON likes(user_id, film_id);
+
 CREATE TABLE IF NOT EXISTS friends (
 user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
 friend_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
@@ -64,6 +73,9 @@ operation VARCHAR(20) NOT NULL,
 entity_id INTEGER NOT NULL,
 created_at BIGINT NOT NULL
 );
+CREATE INDEX IF NOT EXISTS events_user_created_idx ON events(user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS events_user_id_idx ON events(user_id, id);
+CREATE INDEX IF NOT EXISTS events_created_idx ON events(created_at, id);
 
 CREATE TABLE IF NOT EXISTS reviews (
 id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -71,8 +83,10 @@ content VARCHAR(200),
 is_positive BOOLEAN,
 user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
 film_id INTEGER NOT NULL REFERENCES films(id) ON DELETE CASCADE,
-useful INTEGER
+useful INTEGER NOT NULL DEFAULT 0
 );
+CREATE INDEX IF NOT EXISTS reviews_film_useful_idx ON reviews(film_id, useful DESC, id);
+CREATE INDEX IF NOT EXISTS reviews_useful_idx ON reviews(useful DESC, id);
 
 CREATE TABLE IF NOT EXISTS review_ratings (
     user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
@@ -90,4 +104,12 @@ CREATE TABLE IF NOT EXISTS filmDirector (
     film_id INTEGER REFERENCES films(id) ON DELETE CASCADE,
     director_id INTEGER REFERENCES directors(id) ON DELETE CASCADE,
     PRIMARY KEY (film_id, director_id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+    import_id VARCHAR(64) NOT NULL,
+    entity VARCHAR(20) NOT NULL,
+    line_no BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (import_id, entity)
+);
@@ -1,37 +1,172 @@
 package ru.yandex.practicum.filmorate;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+import ru.yandex.practicum.filmorate.config.HttpRequestMetrics;
+import ru.yandex.practicum.filmorate.config.ReadWriteRoutingDataSource;
+import ru.yandex.practicum.filmorate.config.SamplingLogStrategy;
+import ru.yandex.practicum.filmorate.dao.EventDbStorage;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
 import ru.yandex.practicum.filmorate.dao.FriendDbStorage;
+import ru.yandex.practicum.filmorate.dao.LikeDbStorage;
+import ru.yandex.practicum.filmorate.dao.ReviewDbStorage;
 import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.ConnectionPoolStats;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Event;
+import ru.yandex.practicum.filmorate.model.EventsPersisted;
+import ru.yandex.practicum.filmorate.model.FeedQuery;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.QueryStats;
+import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.CatalogEntity;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.model.enums.EventWriteMode;
+import ru.yandex.practicum.filmorate.model.enums.Operation;
+import ru.yandex.practicum.filmorate.service.AdjacencyIndex;
+import ru.yandex.practicum.filmorate.service.CatalogExporter;
+import ru.yandex.practicum.filmorate.service.CatalogImporter;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.EventArchive;
+import ru.yandex.practicum.filmorate.service.EventRetention;
+import ru.yandex.practicum.filmorate.service.EventService;
+import ru.yandex.practicum.filmorate.service.EventWriter;
+import ru.yandex.practicum.filmorate.service.FeedStreamer;
+import ru.yandex.practicum.filmorate.service.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.service.FilmRecommender;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendsFeed;
+import ru.yandex.practicum.filmorate.service.LikesCountReconciler;
+import ru.yandex.practicum.filmorate.service.PoolMetrics;
+import ru.yandex.practicum.filmorate.service.QueryMetrics;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.DirectorStorage;
+import ru.yandex.practicum.filmorate.storage.film.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.film.MpaStorage;
 
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.springframework.test.annotation.DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.annotation.DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD;
 
-@JdbcTest
+@JdbcTest(properties = "filmorate.events.write-mode=SYNC")
 @AutoConfigureTestDatabase
 @Import({UserDbStorage.class})
-@DirtiesContext(classMode = BEFORE_EACH_TEST_METHOD)
+@DirtiesContext(classMode = AFTER_EACH_TEST_METHOD)
 class FilmorateApplicationTests {
     private final UserDbStorage userStorage;
     private final FriendDbStorage friendDbStorage;
+    private final FilmDbStorage filmStorage;
+    private final LikeDbStorage likeStorage;
+    private final ReviewDbStorage reviewStorage;
+    private final EventDbStorage eventStorage;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final DirectorService directorService;
+    private final FriendsFeed friendsFeed;
+    private final FeedStreamer feedStreamer;
+    private final EventRetention eventRetention;
+    private final EventArchive eventArchive;
+    private final EventService eventService;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final DirectorStorage directorStorage;
+    private final CatalogImporter catalogImporter;
+    private final CatalogExporter catalogExporter;
+    private final PoolMetrics poolMetrics;
+    private final QueryMetrics queryMetrics;
     User user;
     User user2;
     User user3;
+    Film film;
+    Film film2;
 
     @Autowired
-    public FilmorateApplicationTests(UserDbStorage userStorage, FriendDbStorage friendDbStorage) {
+    public FilmorateApplicationTests(UserDbStorage userStorage, FriendDbStorage friendDbStorage,
+                                     FilmDbStorage filmStorage, LikeDbStorage likeStorage,
+                                     ReviewDbStorage reviewStorage, EventDbStorage eventStorage,
+                                     FilmService filmService, UserService userService,
+                                     DirectorService directorService, FriendsFeed friendsFeed,
+                                     FeedStreamer feedStreamer, EventRetention eventRetention,
+                                     EventArchive eventArchive, EventService eventService,
+                                     GenreStorage genreStorage, MpaStorage mpaStorage,
+                                     DirectorStorage directorStorage, CatalogImporter catalogImporter,
+                                     CatalogExporter catalogExporter, PoolMetrics poolMetrics,
+                                     QueryMetrics queryMetrics) {
         this.userStorage = userStorage;
         this.friendDbStorage = friendDbStorage;
+        this.filmStorage = filmStorage;
+        this.likeStorage = likeStorage;
+        this.reviewStorage = reviewStorage;
+        this.eventStorage = eventStorage;
+        this.filmService = filmService;
+        this.userService = userService;
+        this.directorService = directorService;
+        this.friendsFeed = friendsFeed;
+        this.feedStreamer = feedStreamer;
+        this.eventRetention = eventRetention;
+        this.eventArchive = eventArchive;
+        this.eventService = eventService;
+        this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
+        this.directorStorage = directorStorage;
+        this.catalogImporter = catalogImporter;
+        this.catalogExporter = catalogExporter;
+        this.poolMetrics = poolMetrics;
+        this.queryMetrics = queryMetrics;
     }
 
     @BeforeEach
@@ -55,6 +190,26 @@ class FilmorateApplicationTests {
                 .login("User3")
                 .birthday(LocalDate.now())
                 .build();
+
+        film = Film.builder()
+                .name("Harry Potter")
+                .description("Description")
+                .duration(100)
+                .releaseDate(LocalDate.of(1999, 2, 10))
+                .mpa(new Mpa(1, "G"))
+                .genres(new LinkedHashSet<>(List.of(new Genre(1, "Комедия"))))
+                .directors(new LinkedHashSet<>())
+                .build();
+
+        film2 = Film.builder()
+                .name("Harry Potter2")
+                .description("Description2")
+                .duration(120)
+                .releaseDate(LocalDate.of(2001, 9, 10))
+                .mpa(new Mpa(1, "G"))
+                .genres(new LinkedHashSet<>(List.of(new Genre(2, "Драма"))))
+                .directors(new LinkedHashSet<>())
+                .build();
     }
 
     @Test
@@ -85,6 +240,22 @@ class FilmorateApplicationTests {
         assertThat(users).hasSize(createUser.size());
     }
 
+    @Test
+    public void testFindUsersPage() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        userStorage.create(user3);
+        friendDbStorage.addFriend(user2.getId(), user3.getId());
+
+        List<User> firstPage = userStorage.findPage(0L, 2).stream().toList();
+        List<User> secondPage = userStorage.findPage(firstPage.getLast().getId(), 2).stream().toList();
+
+        assertThat(firstPage).extracting(User::getId).containsExactly(user.getId(), user2.getId());
+        assertThat(firstPage.getLast().getFriends()).containsExactly(user3.getId());
+        assertThat(secondPage).extracting(User::getId).containsExactly(user3.getId());
+        assertThat(secondPage.getFirst().getFriends()).isEmpty();
+    }
+
     @Test
     public void testUpdateUser() {
         userStorage.create(user);
@@ -164,4 +335,835 @@ class FilmorateApplicationTests {
         assertThat(friends).hasSize(1);
         assertThat(friends.getFirst().getName()).isEqualTo(user3.getName());
     }
+
+    @Test
+    public void testTopFilmsOrderedByLikesCount() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        filmStorage.create(film);
+        filmStorage.create(film2);
+        likeStorage.addLikeToFilm(user.getId(), film.getId());
+        likeStorage.addLikeToFilm(user.getId(), film2.getId());
+        likeStorage.addLikeToFilm(user2.getId(), film2.getId());
+        likeStorage.addLikeToFilm(user2.getId(), film2.getId());
+
+        List<Film> top = filmStorage.getTopFilms(10L, null, null).stream().toList();
+        List<Film> topDrama = filmStorage.getTopFilms(10L, 2, null).stream().toList();
+        List<Film> top1999 = filmStorage.getTopFilms(10L, null, 1999).stream().toList();
+
+        assertThat(top).extracting(Film::getId).containsExactly(film2.getId(), film.getId());
+        assertThat(top.getFirst().getLikes()).hasSize(2);
+        assertThat(topDrama).extracting(Film::getId).containsExactly(film2.getId());
+        assertThat(top1999).extracting(Film::getId).containsExactly(film.getId());
+    }
+
+    @Test
+    public void testLikesCountFollowsLikeRemovalAndUserRemoval() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        filmStorage.create(film);
+        filmStorage.create(film2);
+        likeStorage.addLikeToFilm(user.getId(), film.getId());
+        likeStorage.addLikeToFilm(user2.getId(), film.getId());
+        likeStorage.addLikeToFilm(user2.getId(), film2.getId());
+
+        likeStorage.removeLikeToFilm(user.getId(), film.getId());
+        userStorage.removeUser(user2.getId());
+
+        assertThat(likeStorage.reconcileLikesCount()).isZero();
+    }
+
+    @Test
+    public void testLeaderboardTopFilmsMatchSql() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        filmService.create(film);
+        filmService.create(film2);
+        filmService.addLikeToFilm(user.getId(), film.getId());
+        filmService.addLikeToFilm(user2.getId(), film.getId());
+        filmService.addLikeToFilm(user2.getId(), film2.getId());
+        filmService.removeLikeToFilm(user.getId(), film.getId());
+        filmService.addLikeToFilm(user.getId(), film2.getId());
+
+        for (Integer genreId : new Integer[]{null, 1, 2, 3}) {
+            for (Integer year : new Integer[]{null, 1999, 2001}) {
+                assertThat(filmService.getTopFilms(10L, genreId, year))
+                        .extracting(Film::getId)
+                        .containsExactlyElementsOf(filmStorage.getTopFilms(10L, genreId, year).stream()
+                                .map(Film::getId)
+                                .toList());
+            }
+        }
+        assertThat(filmService.getTopFilms(1L, null, null)).extracting(Film::getId).containsExactly(film2.getId());
+    }
+
+    @Test
+    public void testLeaderboardKeepsEarlyLikesAndResyncsAfterReconcile() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        FilmLeaderboard leaderboard = new FilmLeaderboard(filmStorage);
+        leaderboard.reload();
+        filmStorage.create(film);
+        likeStorage.addLikeToFilm(user.getId(), film.getId());
+        leaderboard.onLikeChanged(film.getId(), 1);
+        leaderboard.onFilmSaved(film);
+
+        assertThat(leaderboard.getLikes(film.getId())).isEqualTo(1);
+        assertThat(leaderboard.getTopFilmIds(10, null, null)).containsExactly(film.getId());
+
+        likeStorage.addLikeToFilm(user2.getId(), film.getId());
+        new LikesCountReconciler(likeStorage, leaderboard).reconcile();
+
+        assertThat(leaderboard.getLikes(film.getId())).isEqualTo(2);
+    }
+
+    @Test
+    public void testFindFilmLoadsLikesAndGenres() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        film.getGenres().add(new Genre(3, "Мультфильм"));
+        filmStorage.create(film);
+        likeStorage.addLikeToFilm(user.getId(), film.getId());
+        likeStorage.addLikeToFilm(user2.getId(), film.getId());
+
+        Film found = filmStorage.findFilm(film.getId()).orElseThrow();
+
+        assertThat(found.getLikes()).containsExactlyInAnyOrder(user.getId(), user2.getId());
+        assertThat(found.getGenres()).extracting(Genre::getName).containsExactly("Комедия", "Мультфильм");
+        assertThat(found.getDirectors()).isEmpty();
+        assertThat(filmStorage.existsFilm(film.getId())).isTrue();
+        assertThat(filmStorage.existsFilm(film.getId() + 1)).isFalse();
+    }
+
+    @Test
+    public void testRecommendationsFromCoLikedFilms() {
+        Film film3 = Film.builder()
+                .name("Harry Potter3")
+                .description("Description3")
+                .duration(130)
+                .releaseDate(LocalDate.of(2004, 5, 31))
+                .mpa(new Mpa(1, "G"))
+                .genres(new LinkedHashSet<>())
+                .directors(new LinkedHashSet<>())
+                .build();
+        userStorage.create(user);
+        userStorage.create(user2);
+        filmService.create(film);
+        filmService.create(film2);
+        filmService.create(film3);
+        filmService.addLikeToFilm(user.getId(), film.getId());
+        filmService.addLikeToFilm(user2.getId(), film.getId());
+        filmService.addLikeToFilm(user2.getId(), film3.getId());
+
+        assertThat(filmService.getRecommendations(user.getId()))
+                .extracting(Film::getId)
+                .containsExactly(film3.getId());
+        assertThat(filmService.getRecommendations(user2.getId())).isEmpty();
+
+        filmService.removeLikeToFilm(user2.getId(), film.getId());
+
+        assertThat(filmService.getRecommendations(user.getId())).isEmpty();
+    }
+
+    @Test
+    public void testRecommendationCacheIsInvalidatedOnlyForAffectedUsers() {
+        FilmRecommender recommender = new FilmRecommender(likeStorage);
+        ReflectionTestUtils.setField(recommender, "cacheSize", 2);
+        recommender.reload();
+        recommender.onLikeAdded(1L, 10L);
+        recommender.onLikeAdded(2L, 10L);
+        recommender.onLikeAdded(2L, 11L);
+        recommender.onLikeAdded(3L, 20L);
+
+        assertThat(recommender.recommend(1L)).containsExactly(11L);
+        recommender.onLikeAdded(4L, 21L);
+        assertThat(recommender.recommend(1L)).containsExactly(11L);
+        assertThat(recommender.getCacheHits()).isEqualTo(1);
+
+        recommender.onLikeAdded(4L, 11L);
+        assertThat(recommender.recommend(1L)).containsExactly(11L);
+        assertThat(recommender.getCacheHits()).isEqualTo(1);
+
+        recommender.recommend(2L);
+        recommender.recommend(3L);
+        assertThat(recommender.getCacheSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCommonFilmsAndFriendsFromAdjacencyIndex() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        userStorage.create(user3);
+        filmService.create(film);
+        filmService.create(film2);
+        filmService.addLikeToFilm(user.getId(), film.getId());
+        filmService.addLikeToFilm(user.getId(), film2.getId());
+        filmService.addLikeToFilm(user2.getId(), film.getId());
+        filmService.addLikeToFilm(user2.getId(), film2.getId());
+        filmService.addLikeToFilm(user3.getId(), film2.getId());
+        userService.addFriend(user.getId(), user3.getId());
+        userService.addFriend(user2.getId(), user3.getId());
+
+        assertThat(filmService.getCommonFilms(user.getId(), user2.getId()))
+                .extracting(Film::getId)
+                .containsExactlyElementsOf(filmStorage.getCommonFilms(user.getId(), user2.getId()).stream()
+                        .map(Film::getId)
+                        .toList())
+                .containsExactly(film2.getId(), film.getId());
+        assertThat(userService.getCommonFriends(user.getId(), user2.getId()))
+                .extracting(User::getId)
+                .containsExactly(user3.getId());
+
+        userService.removeFriend(user2.getId(), user3.getId());
+        filmService.removeLikeToFilm(user2.getId(), film.getId());
+
+        assertThat(userService.getCommonFriends(user.getId(), user2.getId())).isEmpty();
+        assertThat(filmService.getCommonFilms(user.getId(), user2.getId()))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId());
+
+        userService.addFriend(user2.getId(), user3.getId());
+        userService.removeUser(user3.getId());
+        filmService.removeFilm(film2.getId());
+
+        AdjacencyIndex adjacencyIndex = (AdjacencyIndex) ReflectionTestUtils.getField(filmService, "adjacencyIndex");
+        assertThat(adjacencyIndex.getCommonFriendIds(user.getId(), user2.getId())).isEmpty();
+        assertThat(adjacencyIndex.getCommonFilmIds(user.getId(), user2.getId())).isEmpty();
+    }
+
+    @Test
+    public void testSearchFilmsFromIndex() {
+        Director director = directorService.create(Director.builder().name("Chris Columbus").build());
+        film2.getDirectors().add(director);
+        userStorage.create(user);
+        filmService.create(film);
+        filmService.create(film2);
+        filmService.addLikeToFilm(user.getId(), film2.getId());
+
+        assertThat(filmService.searchFilm("POTTER", Set.of("title")))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId(), film.getId());
+        assertThat(filmService.searchFilm("er2", Set.of("title")))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId());
+        assertThat(filmService.searchFilm("lumb", Set.of("director", "title")))
+                .extracting(Film::getId)
+                .containsExactly(film2.getId());
+
+        directorService.updateDirector(new Director(director.getId(), "Alfonso Cuaron"));
+        filmService.removeFilm(film2.getId());
+
+        assertThat(filmService.searchFilm("lumb", Set.of("director"))).isEmpty();
+        assertThat(filmService.searchFilm("potter", Set.of("title")))
+                .extracting(Film::getId)
+                .containsExactlyElementsOf(filmStorage.getFilmsByTitle("potter").stream()
+                        .map(Film::getId)
+                        .toList());
+    }
+
+    @Test
+    public void testReviewUsefulFollowsVotes() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        filmStorage.create(film);
+        Review review = reviewStorage.createReview(Review.builder()
+                .content("Good")
+                .isPositive(true)
+                .userId(user.getId())
+                .filmId(film.getId())
+                .build());
+        Long reviewId = review.getReviewId();
+
+        reviewStorage.likeDislike(reviewId, user.getId(), true);
+        reviewStorage.likeDislike(reviewId, user2.getId(), true);
+        assertThat(reviewStorage.getReviewById(reviewId).orElseThrow().getUseful()).isEqualTo(2);
+
+        reviewStorage.likeDislike(reviewId, user2.getId(), false);
+        assertThat(reviewStorage.getReviewById(reviewId).orElseThrow().getUseful()).isEqualTo(0);
+
+        assertThat(reviewStorage.likeDislike(reviewId, user2.getId(), false)).isFalse();
+        assertThat(reviewStorage.deleteLikeDislike(reviewId, user.getId(), true)).isTrue();
+        assertThat(reviewStorage.deleteLikeDislike(reviewId, user.getId(), true)).isFalse();
+        assertThat(reviewStorage.getReviewById(reviewId).orElseThrow().getUseful()).isEqualTo(-1);
+        assertThat(reviewStorage.reconcileUseful(1, reviewStorage.getMaxReviewId())).isZero();
+    }
+
+    @Test
+    public void testReviewsKeysetPages() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        filmStorage.create(film);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(reviewStorage.createReview(Review.builder()
+                    .content("Review " + i)
+                    .isPositive(true)
+                    .userId(user.getId())
+                    .filmId(film.getId())
+                    .build()).getReviewId());
+        }
+        reviewStorage.likeDislike(ids.get(2), user2.getId(), true);
+
+        List<Review> first = reviewStorage.getReviewsToFilm(film.getId(), 2, null, null);
+        assertThat(first).extracting(Review::getReviewId).containsExactly(ids.get(2), ids.get(0));
+
+        Review last = first.getLast();
+        assertThat(reviewStorage.getReviewsToFilm(film.getId(), 2, last.getUseful(), last.getReviewId()))
+                .extracting(Review::getReviewId)
+                .containsExactly(ids.get(1));
+        assertThat(reviewStorage.getAllReviews(10, last.getUseful(), last.getReviewId()))
+                .extracting(Review::getReviewId)
+                .containsExactly(ids.get(1));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testGroupCommitEventWriterFlushesAllEvents() throws InterruptedException {
+        userStorage.create(user);
+        EventWriter writer = new EventWriter(eventStorage, event -> {
+        });
+        ReflectionTestUtils.setField(writer, "mode", EventWriteMode.GROUP_COMMIT);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 16);
+        ReflectionTestUtils.setField(writer, "flushInterval", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(writer, "ackTimeout", Duration.ofSeconds(5));
+        writer.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            long entityId = i;
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int j = 0; j < 10; j++) {
+                    writer.append(Event.builder()
+                            .entityId(entityId)
+                            .userId(user.getId())
+                            .eventType(EventType.LIKE)
+                            .operation(Operation.ADD)
+                            .timestamp(System.currentTimeMillis())
+                            .build());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(eventStorage.findByUserId(user.getId())).hasSize(80);
+        writer.stop();
+        assertThat(writer.getWrittenEvents()).isEqualTo(80);
+        assertThat(writer.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testEventsAppendedWhileWriterStopsAreNotLost() throws InterruptedException {
+        userStorage.create(user);
+        EventWriter writer = new EventWriter(eventStorage, event -> {
+        });
+        ReflectionTestUtils.setField(writer, "mode", EventWriteMode.GROUP_COMMIT);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(writer, "batchSize", 16);
+        ReflectionTestUtils.setField(writer, "flushInterval", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(writer, "ackTimeout", Duration.ofSeconds(5));
+        writer.start();
+
+        CountDownLatch started = new CountDownLatch(8);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            long entityId = i;
+            threads.add(Thread.ofVirtual().start(() -> {
+                started.countDown();
+                for (int j = 0; j < 50; j++) {
+                    writer.append(Event.builder()
+                            .entityId(entityId)
+                            .userId(user.getId())
+                            .eventType(EventType.LIKE)
+                            .operation(Operation.ADD)
+                            .timestamp(System.currentTimeMillis())
+                            .build());
+                }
+            }));
+        }
+        started.await();
+        writer.stop();
+        for (Thread thread : threads) {
+            assertThat(thread.join(Duration.ofSeconds(10))).isTrue();
+        }
+
+        assertThat(eventStorage.findByUserId(user.getId())).hasSize(400);
+        assertThat(writer.getQueueDepth()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testFailedEventBatchIsRetriedWithoutDuplicates() throws InterruptedException {
+        userStorage.create(user);
+        userStorage.create(user2);
+        userStorage.removeUser(user2.getId());
+        List<Event> published = new CopyOnWriteArrayList<>();
+        EventWriter writer = new EventWriter(eventStorage,
+                event -> published.addAll(((EventsPersisted) event).getEvents()));
+        ReflectionTestUtils.setField(writer, "mode", EventWriteMode.ASYNC);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 4);
+        ReflectionTestUtils.setField(writer, "flushInterval", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(writer, "ackTimeout", Duration.ofSeconds(5));
+        writer.start();
+
+        for (long entityId = 1; entityId <= 4; entityId++) {
+            writer.append(Event.builder()
+                    .entityId(entityId)
+                    .userId(entityId == 2 ? user2.getId() : user.getId())
+                    .eventType(EventType.LIKE)
+                    .operation(Operation.ADD)
+                    .timestamp(System.currentTimeMillis())
+                    .build());
+        }
+        writer.stop();
+
+        assertThat(eventStorage.findByUserId(user.getId()))
+                .extracting(Event::getEntityId)
+                .containsExactlyInAnyOrder(1L, 3L, 4L);
+        assertThat(published).extracting(Event::getEntityId).containsExactlyInAnyOrder(1L, 3L, 4L);
+        assertThat(writer.getWrittenEvents()).isEqualTo(3);
+        assertThat(writer.getFailedEvents()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGroupCommitFailsWhenEventIsNotCommittedInTime() {
+        userStorage.create(user);
+        EventWriter writer = new EventWriter(eventStorage, event -> {
+        });
+        ReflectionTestUtils.setField(writer, "mode", EventWriteMode.GROUP_COMMIT);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "ackTimeout", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(writer, "running", true);
+
+        assertThatThrownBy(() -> writer.append(Event.builder()
+                .entityId(1L)
+                .userId(user.getId())
+                .eventType(EventType.LIKE)
+                .operation(Operation.ADD)
+                .timestamp(System.currentTimeMillis())
+                .build()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("discarded");
+        assertThat(writer.getQueueDepth()).isZero();
+        assertThat(eventStorage.findByUserId(user.getId())).isEmpty();
+    }
+
+    @Test
+    public void testFeedPagesAndTailFollow() {
+        userStorage.create(user);
+        List<Event> events = new ArrayList<>();
+        for (long i = 1; i <= 5; i++) {
+            events.add(Event.builder()
+                    .entityId(i)
+                    .userId(user.getId())
+                    .eventType(EventType.LIKE)
+                    .operation(Operation.ADD)
+                    .timestamp(1000 + i / 2)
+                    .build());
+        }
+        eventStorage.addAll(events);
+        List<Event> all = eventStorage.findByUserId(user.getId(), FeedQuery.builder().build());
+
+        List<Event> first = eventStorage.findByUserId(user.getId(), FeedQuery.builder().limit(2).build());
+        Event last = first.getLast();
+        List<Event> second = eventStorage.findByUserId(user.getId(), FeedQuery.builder()
+                .limit(2)
+                .afterTimestamp(last.getTimestamp())
+                .afterId(last.getId())
+                .build());
+        assertThat(second).containsExactlyElementsOf(all.subList(2, 4));
+
+        assertThat(eventStorage.findByUserId(user.getId(), FeedQuery.builder().since(1001L).until(1002L).build()))
+                .extracting(Event::getEntityId)
+                .containsExactly(2L, 3L);
+        assertThat(eventStorage.findByUserId(user.getId(), FeedQuery.builder().lastEventId(all.get(3).getId()).build()))
+                .containsExactly(all.get(4));
+    }
+
+    @Test
+    public void testFriendsFeedFansOutOnWriteAndOnRead() {
+        userStorage.create(user);
+        userStorage.create(user2);
+        userStorage.create(user3);
+        filmService.create(film);
+        userService.addFriend(user2.getId(), user.getId());
+        userService.addFriend(user3.getId(), user.getId());
+        filmService.addLikeToFilm(user.getId(), film.getId());
+        filmService.addLikeToFilm(user3.getId(), film.getId());
+
+        assertThat(friendsFeed.getFeed(user2.getId(), 10))
+                .extracting(Event::getEventType, Event::getUserId)
+                .containsExactly(tuple(EventType.LIKE, user.getId()));
+
+        ReflectionTestUtils.setField(friendsFeed, "fanOutLimit", 1);
+        filmService.removeLikeToFilm(user.getId(), film.getId());
+
+        assertThat(friendsFeed.getFeed(user2.getId(), 1))
+                .extracting(Event::getOperation)
+                .containsExactly(Operation.REMOVE);
+
+        userService.removeFriend(user2.getId(), user.getId());
+        assertThat(friendsFeed.getFeed(user2.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    public void testRemovingMissingFriendshipStillRecordsEvent() {
+        userStorage.create(user);
+        userStorage.create(user2);
+
+        userService.removeFriend(user.getId(), user2.getId());
+
+        assertThat(eventService.findByUserId(user.getId()))
+                .extracting(Event::getEventType, Event::getOperation, Event::getEntityId)
+                .containsExactly(tuple(EventType.FRIEND, Operation.REMOVE, user2.getId()));
+        assertThat(friendsFeed.getFeed(user.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testFeedStreamReplaysAndPushesEvents() throws InterruptedException {
+        userStorage.create(user);
+        userStorage.create(user2);
+        userService.addFriend(user.getId(), user2.getId());
+        Long firstEventId = eventStorage.findByUserId(user.getId()).iterator().next().getId();
+        userService.removeFriend(user.getId(), user2.getId());
+
+        List<String> sent = new CopyOnWriteArrayList<>();
+        SseEmitter emitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                sent.add(builder.build().iterator().next().getData().toString());
+            }
+        };
+        feedStreamer.subscribe(user.getId(), firstEventId, emitter);
+        userService.addFriend(user.getId(), user2.getId());
+
+        for (int i = 0; i < 50 && sent.size() < 2; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(0)).startsWith("id:" + (firstEventId + 1));
+        assertThat(sent.get(1)).startsWith("id:" + (firstEventId + 2));
+    }
+
+    @Test
+    public void testDamagedArchiveSegmentIsReadUpToTheDamage(@TempDir Path archiveDir) throws IOException {
+        ReflectionTestUtils.setField(eventArchive, "directory", archiveDir);
+        ReflectionTestUtils.setField(eventArchive, "usersPerSegment", 1);
+        userStorage.create(user);
+        List<Event> events = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            events.add(Event.builder()
+                    .id(i)
+                    .entityId(i)
+                    .userId(user.getId())
+                    .eventType(EventType.LIKE)
+                    .operation(Operation.ADD)
+                    .timestamp(i)
+                    .build());
+        }
+        eventArchive.append(events.subList(0, 2));
+        Path segment = archiveDir.resolve("users-" + user.getId()).resolve("events-1970-01-01.ndjson.gz");
+        byte[] member = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(member, member.length / 2), StandardOpenOption.APPEND);
+
+        assertThat(eventArchive.find(user.getId(), FeedQuery.builder().build()))
+                .extracting(Event::getEntityId)
+                .containsExactly(1L, 2L);
+
+        eventArchive.append(events.subList(2, 3));
+
+        assertThat(eventArchive.find(user.getId(), FeedQuery.builder().build()))
+                .extracting(Event::getEntityId)
+                .containsExactly(1L, 2L, 3L);
+        assertThat(segment.resolveSibling(segment.getFileName() + ".tmp")).doesNotExist();
+    }
+
+    @Test
+    public void testRetentionArchivesOldEventsAndServesThem(@TempDir Path archiveDir) {
+        ReflectionTestUtils.setField(eventArchive, "directory", archiveDir);
+        ReflectionTestUtils.setField(eventArchive, "usersPerSegment", 1);
+        userStorage.create(user);
+        userStorage.create(user2);
+        long day = Duration.ofDays(1).toMillis();
+        List<Event> events = new ArrayList<>();
+        for (long i = 1; i <= 4; i++) {
+            for (User author : List.of(user, user2)) {
+                events.add(Event.builder()
+                        .entityId(i)
+                        .userId(author.getId())
+                        .eventType(EventType.LIKE)
+                        .operation(Operation.ADD)
+                        .timestamp(i * day)
+                        .build());
+            }
+        }
+        eventStorage.addAll(events);
+
+        assertThat(eventRetention.archive(3 * day)).isEqualTo(4);
+
+        assertThat(archiveDir.resolve("users-" + user.getId())).isDirectoryContaining("glob:**/events-*.ndjson.gz");
+        assertThat(archiveDir.resolve("users-" + user2.getId())).isDirectoryContaining("glob:**/events-*.ndjson.gz");
+        assertThat(eventArchive.find(user2.getId(), FeedQuery.builder().limit(1).build()))
+                .extracting(Event::getUserId, Event::getEntityId)
+                .containsExactly(tuple(user2.getId(), 1L));
+        assertThat(eventStorage.findByUserId(user.getId())).hasSize(2);
+        assertThat(eventService.findByUserId(user.getId()))
+                .extracting(Event::getEntityId)
+                .containsExactly(1L, 2L, 3L, 4L);
+        assertThat(eventService.findByUserId(user.getId(), FeedQuery.builder().since(2 * day).limit(2).build()))
+                .extracting(Event::getEntityId)
+                .containsExactly(2L, 3L);
+    }
+
+    @Test
+    public void testReferenceDataCaches() {
+        assertThat(genreStorage.findGenre(1).getName()).isEqualTo("Комедия");
+        assertThat(genreStorage.findAll()).hasSize(6);
+        assertThat(mpaStorage.findMpa(1).getName()).isEqualTo("G");
+        assertThatThrownBy(() -> mpaStorage.findMpa(100)).isInstanceOf(NotFoundException.class);
+
+        Director director = directorStorage.create(Director.builder().name("Chris Columbus").build());
+        assertThat(directorStorage.findDirector(director.getId())).contains(director);
+
+        directorStorage.updateDirector(new Director(director.getId(), "Alfonso Cuaron"));
+        assertThat(directorStorage.findDirector(director.getId()).orElseThrow().getName())
+                .isEqualTo("Alfonso Cuaron");
+
+        directorStorage.removeDirector(director.getId());
+        assertThat(directorStorage.findAll()).isEmpty();
+        assertThatThrownBy(() -> directorStorage.findDirector(director.getId()))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void testFilmReferencesValidatedAndDiffedOnUpdate() {
+        Director director = directorStorage.create(Director.builder().name("Chris Columbus").build());
+        film.getDirectors().add(director);
+        Film created = filmService.create(film);
+
+        created.setMpa(new Mpa(99, null));
+        created.setGenres(new LinkedHashSet<>(List.of(new Genre(2, null), new Genre(70, null), new Genre(71, null))));
+        created.setDirectors(new LinkedHashSet<>(List.of(new Director(500L, null))));
+        assertThatThrownBy(() -> filmService.updateFilm(created))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("MPA with ids [99], Genres with ids [70, 71], Directors with ids [500] not found");
+
+        created.setMpa(new Mpa(2, null));
+        created.setGenres(new LinkedHashSet<>(List.of(new Genre(2, null), new Genre(3, null))));
+        created.setDirectors(new LinkedHashSet<>());
+        filmService.updateFilm(created);
+
+        Film found = filmStorage.findFilm(created.getId()).orElseThrow();
+        assertThat(found.getMpa().getId()).isEqualTo(2);
+        assertThat(found.getGenres()).extracting(Genre::getId).containsExactlyInAnyOrder(2, 3);
+        assertThat(found.getDirectors()).isEmpty();
+    }
+
+    @Test
+    public void testCreateFilmsInBatches() {
+        ReflectionTestUtils.setField(filmService, "importBatchSize", 1000);
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            films.add(Film.builder()
+                    .name("Film " + i)
+                    .description("Description")
+                    .duration(90)
+                    .releaseDate(LocalDate.of(2000, 1, 1).plusDays(i))
+                    .mpa(new Mpa(1 + i % 5, null))
+                    .genres(new LinkedHashSet<>(List.of(new Genre(1 + i % 6, null), new Genre(1 + (i + 1) % 6, null))))
+                    .directors(new LinkedHashSet<>())
+                    .build());
+        }
+        films.getLast().getGenres().add(new Genre(42, null));
+        assertThatThrownBy(() -> filmService.createAll(films))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Genres with ids [42] not found");
+        assertThat(filmStorage.findAll()).isEmpty();
+
+        films.getLast().getGenres().removeIf(genre -> genre.getId() == 42);
+        List<Film> created = filmService.createAll(films);
+
+        assertThat(created).extracting(Film::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(filmStorage.findAll()).hasSize(2500);
+        assertThat(filmStorage.findFilm(created.get(1234).getId()).orElseThrow().getGenres())
+                .extracting(Genre::getId)
+                .containsExactlyInAnyOrder(5, 6);
+        assertThat(filmService.getTopFilms(3L, null, null)).hasSize(3);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testCatalogImportResumesAndExports() throws IOException {
+        String users = """
+                {"id":5,"email":"a@ya.ru","login":"a","birthday":"1990-01-01"}
+                {"id":6,"email":"b@ya.ru","login":"b","name":"Bee","birthday":"1991-01-01"}
+                {"id":7,"email":"wrong","login":"c","birthday":"1992-01-01"}
+                """;
+        ImportReport userReport = catalogImporter.importNdjson(CatalogEntity.USERS, "import-1", stream(users));
+        assertThat(userReport.getImportedRows()).isEqualTo(2);
+        assertThat(userReport.getRejectedRows()).isEqualTo(1);
+        assertThat(userReport.getErrors()).singleElement().asString().startsWith("line 3:");
+
+        String films = """
+                {"id":10,"name":"A","description":"d","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1},"genres":[{"id":1}]}
+                {"id":11,"name":"B","description":"d","releaseDate":"2001-01-01","duration":90,"mpa":{"id":2},"genres":[]}
+                """;
+        catalogImporter.importNdjson(CatalogEntity.FILMS, "import-1", stream(films));
+        String likes = """
+                {"filmId":10,"userId":5}
+                {"filmId":10,"userId":6}
+                """;
+        catalogImporter.importNdjson(CatalogEntity.LIKES, "import-1", stream(likes));
+        ImportReport resumed = catalogImporter.importNdjson(CatalogEntity.LIKES, "import-1",
+                stream(likes + "{\"filmId\":11,\"userId\":6}\n{\"filmId\":99,\"userId\":6}\n"));
+        assertThat(resumed.getResumedFromLine()).isEqualTo(2);
+        assertThat(resumed.getProcessedRows()).isEqualTo(2);
+        assertThat(resumed.getImportedRows()).isEqualTo(1);
+        assertThat(resumed.getErrors()).containsExactly("line 4: referenced film or user not found");
+        catalogImporter.importNdjson(CatalogEntity.FRIENDSHIPS, null,
+                stream("{\"userId\":5,\"friendId\":6}\n"));
+
+        assertThat(filmService.getTopFilms(2L, null, null)).extracting(Film::getId).containsExactly(10L, 11L);
+        assertThat(filmStorage.findFilm(10L).orElseThrow().getLikes()).containsExactlyInAnyOrder(5L, 6L);
+        assertThat(userService.getUserFriends(5L)).extracting(User::getId).containsExactly(6L);
+        assertThat(userStorage.findUser(5L).getName()).isEqualTo("a");
+        assertThat(filmService.create(film).getId()).isEqualTo(12L);
+        assertThat(userStorage.create(user).getId()).isEqualTo(7L);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertThat(catalogExporter.exportNdjson(CatalogEntity.LIKES, output)).isEqualTo(3);
+        assertThat(output.toString(StandardCharsets.UTF_8))
+                .isEqualTo("{\"filmId\":10,\"userId\":5}\n{\"filmId\":10,\"userId\":6}\n{\"filmId\":11,\"userId\":6}\n");
+        output.reset();
+        assertThat(catalogExporter.exportNdjson(CatalogEntity.FILMS, output)).isEqualTo(3);
+        assertThat(output.toString(StandardCharsets.UTF_8)).startsWith("{\"id\":10,\"name\":\"A\"");
+    }
+
+    private InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testReadOnlyTransactionsUseReadPool() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.WRITE, new DriverManagerDataSource("jdbc:h2:mem:route-write"),
+                ReadWriteRoutingDataSource.Route.READ, new DriverManagerDataSource("jdbc:h2:mem:route-read")));
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        String writeDatabase = transaction.execute(status -> jdbc.queryForObject("SELECT DATABASE()", String.class));
+        transaction.setReadOnly(true);
+        String readDatabase = transaction.execute(status -> jdbc.queryForObject("SELECT DATABASE()", String.class));
+
+        assertThat(writeDatabase).isEqualToIgnoringCase("route-write");
+        assertThat(readDatabase).isEqualToIgnoringCase("route-read");
+        assertThat(poolMetrics.getPools())
+                .extracting(ConnectionPoolStats::getPool, ConnectionPoolStats::getMaximumPoolSize)
+                .containsExactlyInAnyOrder(tuple("filmorate-write", 4), tuple("filmorate-read", 4));
+    }
+
+    @Test
+    public void testQueryMetricsAreGroupedByStatementConstant() {
+        User first = userStorage.create(user);
+        User second = userStorage.create(user2);
+        filmStorage.create(film);
+        filmStorage.create(film2);
+
+        userStorage.findUsersByIds(List.of(first.getId()));
+        userStorage.findUsersByIds(List.of(first.getId(), second.getId()));
+        filmStorage.getTopFilms(10L, null, null);
+        filmStorage.getTopFilms(10L, 1, 1999);
+
+        assertThat(queryMetrics.getQueries())
+                .extracting(QueryStats::getStatement, QueryStats::getCalls, QueryStats::getRows)
+                .contains(
+                        tuple("UserDbStorage.INSERT_USER", 2L, 2L),
+                        tuple("UserDbStorage.GET_USERS_BY_IDS", 2L, 3L),
+                        tuple("FilmDbStorage.GET_TOP_FILMS", 2L, 3L));
+        assertThat(queryMetrics.getQueries())
+                .filteredOn(stats -> stats.getStatement().equals("FilmDbStorage.GET_TOP_FILMS"))
+                .singleElement()
+                .satisfies(stats -> assertThat(stats.getHistogram().values().stream().mapToLong(Long::longValue).sum())
+                        .isEqualTo(2));
+    }
+
+    @Test
+    public void testRequestTimersAndLikeCountersAreRecorded() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HttpRequestMetrics httpRequestMetrics = new HttpRequestMetrics(meterRegistry);
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films/" + (i + 1));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            httpRequestMetrics.preHandle(request, response, this);
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/films/{id}");
+            response.setStatus(404);
+            httpRequestMetrics.afterCompletion(request, response, this, null);
+        }
+        userStorage.create(user);
+        filmService.create(film);
+        filmService.addLikeToFilm(user.getId(), film.getId());
+        filmService.addLikeToFilm(user.getId(), film.getId());
+        filmService.removeLikeToFilm(user.getId(), film.getId());
+
+        assertThat(meterRegistry.get(HttpRequestMetrics.METRIC_NAME)
+                .tags("method", "GET", "uri", "/films/{id}", "status", "404", "outcome", "CLIENT_ERROR")
+                .timer()
+                .count()).isEqualTo(2);
+        assertThat(filmService.getLikesAdded()).isEqualTo(1);
+        assertThat(filmService.getLikesRemoved()).isEqualTo(1);
+    }
+
+    @Test
+    public void testHttpLogsAreSampledButErrorsAndSlowRequestsAreAlwaysWritten() throws IOException {
+        SamplingLogStrategy strategy = new SamplingLogStrategy();
+        ReflectionTestUtils.setField(strategy, "sampleRate", 0.0);
+        ReflectionTestUtils.setField(strategy, "slowRequestThreshold", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(strategy, "errorStatus", 400);
+        List<Integer> written = new ArrayList<>();
+        Sink sink = new Sink() {
+            @Override
+            public void write(Precorrelation precorrelation, HttpRequest request) {
+            }
+
+            @Override
+            public void write(Correlation correlation, HttpRequest request, HttpResponse response) {
+                written.add(response.getStatus());
+            }
+        };
+        HttpRequest request = mock(HttpRequest.class);
+
+        for (int status : List.of(200, 201, 404, 500)) {
+            log(strategy, sink, request, "fast-" + status, status, Duration.ofMillis(5));
+        }
+        log(strategy, sink, request, "slow", 200, Duration.ofSeconds(2));
+        assertThat(written).containsExactly(404, 500, 200);
+
+        written.clear();
+        ReflectionTestUtils.setField(strategy, "sampleRate", 1.0);
+        HttpResponse sampledResponse = log(strategy, sink, request, "sampled", 200, Duration.ofMillis(5));
+        assertThat(written).containsExactly(200);
+        verify(sampledResponse).withBody();
+    }
+
+    private HttpResponse log(SamplingLogStrategy strategy, Sink sink, HttpRequest request, String id, int status,
+                             Duration duration) throws IOException {
+        Correlation correlation = mock(Correlation.class);
+        when(correlation.getId()).thenReturn(id);
+        when(correlation.getDuration()).thenReturn(duration);
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatus()).thenReturn(status);
+        strategy.write(correlation, request, sink);
+        strategy.process(request, response);
+        strategy.write(correlation, request, response, sink);
+        return response;
+    }
 }